@@ -18,7 +18,9 @@ public record ClassResponse(
         String summary,
         List<AdviceDto> advices,
         List<String> notes,
-        NotesPreviewDto notesPreview
+        NotesPreviewDto notesPreview,
+        List<ReviewItemDto> reviews,  // newest first, first page only
+        String reviewsNextCursor      // for GET /api/classes/{code}/reviews; null when that was all
 ) {
     public record AdviceDto(String id, String author, String date, String text, int upvotes) {
     }
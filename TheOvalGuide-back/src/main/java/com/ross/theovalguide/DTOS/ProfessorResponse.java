@@ -14,6 +14,7 @@ public record ProfessorResponse(
         List<LabelCountDto> buckets, // 5 -> 1
         List<TagDto> tags,
         String summary,
-        List<ReviewItemDto> reviews
+        List<ReviewItemDto> reviews,  // newest first, first page only
+        String reviewsNextCursor      // for GET /api/professors/{slug}/reviews; null when that was all
 ) {
 }
\ No newline at end of file
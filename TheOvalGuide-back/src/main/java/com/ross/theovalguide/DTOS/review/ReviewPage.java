@@ -0,0 +1,11 @@
+package com.ross.theovalguide.DTOS.review;
+
+import com.ross.theovalguide.DTOS.ReviewItemDto;
+
+import java.util.List;
+
+public record ReviewPage(
+        List<ReviewItemDto> items,
+        String nextCursor   // null on the last page
+) {
+}
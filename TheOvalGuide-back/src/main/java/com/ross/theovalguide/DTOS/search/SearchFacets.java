@@ -0,0 +1,12 @@
+package com.ross.theovalguide.DTOS.search;
+
+import com.ross.theovalguide.DTOS.LabelCountDto;
+
+import java.util.List;
+
+public record SearchFacets(
+        long total,                          // matches under all filters
+        List<LabelCountDto> universities,    // counts under every filter except university
+        List<LabelCountDto> departments      // counts under every filter except department
+) {
+}
@@ -0,0 +1,9 @@
+package com.ross.theovalguide.DTOS.search;
+
+import java.util.List;
+
+public record SearchPage(
+        List<SearchItem> items,
+        String nextCursor   // null on the last page
+) {
+}
@@ -2,5 +2,16 @@ package com.ross.theovalguide.DTOS.search;
 
 import java.util.List;
 
-public record SearchResponse(List<SearchItem> items) {
-}
\ No newline at end of file
+public record SearchResponse(
+        List<SearchItem> items,
+        boolean partial,      // true when the search deadline cut off a sub-query
+        SearchFacets facets   // null unless filters or facets were requested
+) {
+    public SearchResponse(List<SearchItem> items) {
+        this(items, false, null);
+    }
+
+    public SearchResponse(List<SearchItem> items, boolean partial) {
+        this(items, partial, null);
+    }
+}
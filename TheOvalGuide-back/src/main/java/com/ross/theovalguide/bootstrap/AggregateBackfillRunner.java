@@ -0,0 +1,37 @@
+package com.ross.theovalguide.bootstrap;
+
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.repo.ReviewTagRepository;
+import com.ross.theovalguide.repo.TagCountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Fills the running rating/difficulty sums and histograms on professors and classes that were written
+ * before those columns existed, and the tag counters when review tags predate them. Set-based
+ * statements; rows that already have them are untouched.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AggregateBackfillRunner implements CommandLineRunner {
+    private final ProfessorRepository professors;
+    private final CourseClassRepository classes;
+    private final ReviewTagRepository reviewTags;
+    private final TagCountRepository tagCounts;
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        int profs = professors.backfillRatingSums() + professors.rebuildRatingHistograms(false);
+        int cls = classes.backfillDifficultySums() + classes.rebuildDifficultyHistograms(false);
+        if (profs + cls > 0) log.info("Backfilled review aggregates ({} professor and {} class row updates)", profs, cls);
+        if (tagCounts.count() == 0 && reviewTags.count() > 0) {
+            log.info("Backfilled {} tag counters", tagCounts.insertRecounted());
+        }
+    }
+}
@@ -0,0 +1,329 @@
+package com.ross.theovalguide.bootstrap;
+
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.service.AggregateWriteBehind;
+import com.ross.theovalguide.service.page.PageReadModel;
+import com.ross.theovalguide.service.search.CatalogChangedEvent;
+import com.ross.theovalguide.service.search.SearchDocument;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Recomputes the stored aggregates of every professor and class (counts, sums, averages, histograms) from
+ * {@code reviews}, and the tag counters from {@code review_tags}, undoing drift from manual data fixes or
+ * writes that bypassed ReviewService. Runs nightly (reviews.aggregate-repair.cron), or once at startup
+ * with reviews.aggregate-repair.on-startup.
+ * <p>
+ * Each table is split into id ranges of reviews.aggregate-repair.chunk-size rows, handled in parallel by
+ * reviews.aggregate-repair.threads workers. A chunk is one GROUP BY that reads the stored and the
+ * recounted values together without locking, then a JDBC batch that updates only the rows that differ,
+ * each guarded by the counters it read so a review written in between is not overwritten. The chunk's
+ * tag counters are checked and repaired the same way. Locks are held for the length of one chunk's batch.
+ * <p>
+ * With write-behind enabled a chunk's aggregate batch runs under {@link AggregateWriteBehind#exclusively}:
+ * deltas buffered for reviews the GROUP BY already counted are flushed first, which moves those rows off
+ * the counters the guard expects, so they are left to the next run instead of being counted twice.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AggregateRepairJob {
+
+    private static final String PROFESSOR_CHUNK_SQL = """
+            select p.id, p.total_ratings, p.rating_sum, p.overall_rating,
+                   p.rating_count_1, p.rating_count_2, p.rating_count_3, p.rating_count_4, p.rating_count_5,
+                   count(r.id), coalesce(sum(r.rating), 0),
+                   count(case when r.rating = 1 then 1 end), count(case when r.rating = 2 then 1 end),
+                   count(case when r.rating = 3 then 1 end), count(case when r.rating = 4 then 1 end),
+                   count(case when r.rating = 5 then 1 end)
+            from professors p left join reviews r on r.professor_id = p.id
+            where p.id between ? and ?
+            group by p.id, p.total_ratings, p.rating_sum, p.overall_rating, p.rating_count_1, p.rating_count_2,
+                     p.rating_count_3, p.rating_count_4, p.rating_count_5
+            """;
+
+    private static final String PROFESSOR_UPDATE_SQL = """
+            update professors set total_ratings = ?, rating_sum = ?, overall_rating = ?,
+              rating_count_1 = ?, rating_count_2 = ?, rating_count_3 = ?, rating_count_4 = ?, rating_count_5 = ?,
+              updated_at = ?
+            where id = ? and total_ratings = ? and coalesce(rating_sum, -1) = ?
+            """;
+
+    private static final String CLASS_CHUNK_SQL = """
+            select c.id, c.total_ratings, c.difficulty_sum, c.difficulty_count, c.difficulty_avg,
+                   c.difficulty_count_1, c.difficulty_count_2, c.difficulty_count_3, c.difficulty_count_4,
+                   c.difficulty_count_5,
+                   count(r.id), coalesce(sum(r.difficulty), 0), count(r.difficulty),
+                   count(case when r.difficulty = 1 then 1 end), count(case when r.difficulty = 2 then 1 end),
+                   count(case when r.difficulty = 3 then 1 end), count(case when r.difficulty = 4 then 1 end),
+                   count(case when r.difficulty = 5 then 1 end)
+            from classes c left join reviews r on r.class_id = c.id
+            where c.id between ? and ?
+            group by c.id, c.total_ratings, c.difficulty_sum, c.difficulty_count, c.difficulty_avg,
+                     c.difficulty_count_1, c.difficulty_count_2, c.difficulty_count_3, c.difficulty_count_4,
+                     c.difficulty_count_5
+            """;
+
+    private static final String CLASS_UPDATE_SQL = """
+            update classes set total_ratings = ?, difficulty_sum = ?, difficulty_count = ?, difficulty_avg = ?,
+              difficulty_count_1 = ?, difficulty_count_2 = ?, difficulty_count_3 = ?, difficulty_count_4 = ?,
+              difficulty_count_5 = ?, updated_at = ?
+            where id = ? and total_ratings = ?
+              and coalesce(difficulty_count, -1) = ? and coalesce(difficulty_sum, -1) = ?
+            """;
+
+    // tag counters of one chunk of subjects (%1$s = table, %2$s = reviews column) that differ from review_tags:
+    // subject, tag, stored count (null: no row), recounted count
+    private static final String TAG_CHUNK_SQL = """
+            select x.subject_id, x.tag_id, max(x.stored), coalesce(max(x.counted), 0)
+            from (
+              select tc.subject_id, tc.tag_id, tc.review_count as stored, cast(null as bigint) as counted
+              from tag_counts tc join %1$s s on s.id = tc.subject_id
+              where s.id between ? and ?
+              union all
+              select r.%2$s, rt.tag_id, cast(null as bigint), count(*)
+              from review_tags rt join reviews r on r.id = rt.review_id
+              where r.%2$s between ? and ?
+              group by r.%2$s, rt.tag_id
+            ) x
+            group by x.subject_id, x.tag_id
+            having max(x.stored) is null or max(x.stored) <> coalesce(max(x.counted), 0)
+            """;
+
+    private static final String TAG_UPDATE_SQL = """
+            update tag_counts set review_count = ? where subject_id = ? and tag_id = ? and review_count = ?
+            """;
+
+    private static final String TAG_INSERT_SQL = """
+            insert into tag_counts (subject_id, tag_id, review_count) values (?, ?, ?)
+            on conflict do nothing
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ProfessorRepository professors;
+    private final CourseClassRepository classes;
+    private final AggregateWriteBehind writeBehind;
+    private final PageReadModel pages;
+    private final ApplicationEventPublisher events;
+
+    @Value("${reviews.aggregate-repair.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${reviews.aggregate-repair.threads:4}")
+    private int threads;
+
+    @Value("${reviews.aggregate-repair.on-startup:false}")
+    private boolean onStartup;
+
+    /**
+     * @param drifted rows whose stored aggregates differed from the recount
+     * @param repaired drifted rows rewritten; the rest changed under the job and are left to the next run
+     * @param tagCounters tag counters rewritten or created
+     */
+    public record Report(int professors, int professorsDrifted, int professorsRepaired,
+                         int classes, int classesDrifted, int classesRepaired, int tagCounters, long millis) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void repairOnStartup() {
+        if (onStartup) repairAll();
+    }
+
+    @Scheduled(cron = "${reviews.aggregate-repair.cron:0 30 3 * * *}")
+    public Report repairAll() {
+        long started = System.nanoTime();
+        // buffered deltas would otherwise look like drift (each chunk's writes flush again, see below)
+        if (writeBehind.enabled()) writeBehind.flush();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().name("aggregate-repair-", 0).factory());
+        Tally profs;
+        Tally cls;
+        try {
+            profs = run(pool, "professors", this::repairProfessors);
+            cls = run(pool, "classes", this::repairClasses);
+        } finally {
+            pool.shutdown();
+        }
+
+        // batched JDBC skips the entity listeners
+        profs.repairedIds.forEach(id -> professors.findSearchRowById(id).ifPresent(row -> events.publishEvent(
+                new CatalogChangedEvent(SearchDocument.of(Kind.PROFESSOR, row), CatalogChangedEvent.Change.UPDATED))));
+        cls.repairedIds.forEach(id -> classes.findSearchRowById(id).ifPresent(row -> events.publishEvent(
+                new CatalogChangedEvent(SearchDocument.of(Kind.CLASS, row), CatalogChangedEvent.Change.UPDATED))));
+        pages.clear();
+
+        var report = new Report(profs.checked, profs.drifted, profs.repairedIds.size(),
+                cls.checked, cls.drifted, cls.repairedIds.size(), profs.tagCounters + cls.tagCounters,
+                (System.nanoTime() - started) / 1_000_000);
+        log.info("Aggregate repair: {} of {} professors and {} of {} classes had drifted ({} and {} repaired), "
+                        + "{} tag counters repaired, in {} ms",
+                report.professorsDrifted(), report.professors(), report.classesDrifted(), report.classes(),
+                report.professorsRepaired(), report.classesRepaired(), report.tagCounters(), report.millis());
+        return report;
+    }
+
+    private interface ChunkRepair {
+        Tally repair(UUID from, UUID to);
+    }
+
+    // ranges come from the table's own id order, so "between" matches what the database sorts
+    private Tally run(ExecutorService pool, String table, ChunkRepair chunk) {
+        List<UUID> ids = jdbc.queryForList("select id from " + table + " order by id", UUID.class);
+        List<Future<Tally>> parts = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            UUID from = ids.get(i);
+            UUID to = ids.get(Math.min(i + chunkSize, ids.size()) - 1);
+            parts.add(pool.submit(() -> chunk.repair(from, to)));
+        }
+        Tally total = new Tally();
+        try {
+            for (Future<Tally> part : parts) total.add(part.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("aggregate repair interrupted", e);
+        } catch (ExecutionException e) {
+            parts.forEach(p -> p.cancel(false));
+            throw new IllegalStateException("aggregate repair of " + table + " failed", e.getCause());
+        }
+        return total;
+    }
+
+    private Tally repairProfessors(UUID from, UUID to) {
+        var tally = new Tally();
+        List<Object[]> updates = new ArrayList<>();
+        List<UUID> drifted = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.query(PROFESSOR_CHUNK_SQL, (RowCallbackHandler) rs -> {
+            tally.checked++;
+            long total = rs.getLong(10);
+            long sum = rs.getLong(11);
+            BigDecimal avg = average(sum, total);
+            boolean same = rs.getLong(2) == total && Objects.equals(nullableLong(rs, 3), sum)
+                    && sameDecimal(rs.getBigDecimal(4), avg);
+            for (int b = 0; b < 5 && same; b++) same = Objects.equals(nullableLong(rs, 5 + b), rs.getLong(12 + b));
+            if (same) return;
+            UUID id = rs.getObject(1, UUID.class);
+            Long storedSum = nullableLong(rs, 3);
+            drifted.add(id);
+            updates.add(new Object[]{total, sum, avg, rs.getLong(12), rs.getLong(13), rs.getLong(14), rs.getLong(15),
+                    rs.getLong(16), now, id, rs.getLong(2), storedSum == null ? -1L : storedSum});
+        }, from, to);
+        tally.drifted = drifted.size();
+        if (!updates.isEmpty()) {
+            int[] done = writeBehind.exclusively(() -> tx.execute(s -> jdbc.batchUpdate(PROFESSOR_UPDATE_SQL, updates)));
+            for (int i = 0; i < done.length; i++) if (done[i] != 0) tally.repairedIds.add(drifted.get(i));
+        }
+        tally.tagCounters = repairTagCounts("professors", "professor_id", from, to);
+        return tally;
+    }
+
+    private Tally repairClasses(UUID from, UUID to) {
+        var tally = new Tally();
+        List<Object[]> updates = new ArrayList<>();
+        List<UUID> drifted = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbc.query(CLASS_CHUNK_SQL, (RowCallbackHandler) rs -> {
+            tally.checked++;
+            long total = rs.getLong(11);
+            long sum = rs.getLong(12);
+            long count = rs.getLong(13);
+            BigDecimal avg = average(sum, count);
+            boolean same = rs.getLong(2) == total && Objects.equals(nullableLong(rs, 3), sum)
+                    && Objects.equals(nullableLong(rs, 4), count) && sameDecimal(rs.getBigDecimal(5), avg);
+            for (int b = 0; b < 5 && same; b++) same = Objects.equals(nullableLong(rs, 6 + b), rs.getLong(14 + b));
+            if (same) return;
+            UUID id = rs.getObject(1, UUID.class);
+            Long storedSum = nullableLong(rs, 3);
+            Long storedCount = nullableLong(rs, 4);
+            drifted.add(id);
+            updates.add(new Object[]{total, sum, count, avg, rs.getLong(14), rs.getLong(15), rs.getLong(16),
+                    rs.getLong(17), rs.getLong(18), now, id, rs.getLong(2),
+                    storedCount == null ? -1L : storedCount, storedSum == null ? -1L : storedSum});
+        }, from, to);
+        tally.drifted = drifted.size();
+        if (!updates.isEmpty()) {
+            int[] done = writeBehind.exclusively(() -> tx.execute(s -> jdbc.batchUpdate(CLASS_UPDATE_SQL, updates)));
+            for (int i = 0; i < done.length; i++) if (done[i] != 0) tally.repairedIds.add(drifted.get(i));
+        }
+        tally.tagCounters = repairTagCounts("classes", "class_id", from, to);
+        return tally;
+    }
+
+    // same pattern for the chunk's tag counters; ReviewService moves them in the review's own transaction,
+    // so the guard on the count read is enough. Outside exclusively(): waiting review commits hold these rows
+    private int repairTagCounts(String table, String column, UUID from, UUID to) {
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        jdbc.query(TAG_CHUNK_SQL.formatted(table, column), (RowCallbackHandler) rs -> {
+            UUID subject = rs.getObject(1, UUID.class);
+            UUID tag = rs.getObject(2, UUID.class);
+            Long stored = nullableLong(rs, 3);
+            long counted = rs.getLong(4);
+            if (stored == null) inserts.add(new Object[]{subject, tag, counted});
+            else updates.add(new Object[]{counted, subject, tag, stored});
+        }, from, to, from, to);
+        if (updates.isEmpty() && inserts.isEmpty()) return 0;
+        return tx.execute(s -> {
+            int n = 0;
+            for (int c : jdbc.batchUpdate(TAG_UPDATE_SQL, updates)) if (c > 0) n += c;
+            for (int c : jdbc.batchUpdate(TAG_INSERT_SQL, inserts)) if (c > 0) n += c;
+            return n;
+        });
+    }
+
+    // as the UPDATEs in ReviewService: round(sum / count, 2), null without reviews
+    private static BigDecimal average(long sum, long count) {
+        return count == 0 ? null : BigDecimal.valueOf(sum).divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+
+    private static boolean sameDecimal(BigDecimal a, BigDecimal b) {
+        return a == null ? b == null : b != null && a.compareTo(b) == 0;
+    }
+
+    private static Long nullableLong(ResultSet rs, int column) throws SQLException {
+        long v = rs.getLong(column);
+        return rs.wasNull() ? null : v;
+    }
+
+    private static final class Tally {
+        int checked;
+        int drifted;
+        int tagCounters;
+        final List<UUID> repairedIds = new ArrayList<>();
+
+        void add(Tally other) {
+            checked += other.checked;
+            drifted += other.drifted;
+            tagCounters += other.tagCounters;
+            repairedIds.addAll(other.repairedIds);
+        }
+    }
+}
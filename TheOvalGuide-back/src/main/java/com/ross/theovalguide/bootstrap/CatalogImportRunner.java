@@ -0,0 +1,34 @@
+package com.ross.theovalguide.bootstrap;
+
+import com.ross.theovalguide.service.CatalogImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Term catalog load, e.g.
+ * {@code java -jar app.jar --catalog.import.file=catalog.csv}.
+ * Runs once the startup backfills are done (matching relies on classes.code_normalized being filled).
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "catalog.import.file")
+public class CatalogImportRunner {
+    private final CatalogImportService importer;
+
+    @Value("${catalog.import.file}")
+    private Path file;
+
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() throws IOException {
+        importer.importFile(file);
+    }
+}
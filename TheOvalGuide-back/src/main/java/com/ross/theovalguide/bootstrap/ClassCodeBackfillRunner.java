@@ -0,0 +1,54 @@
+package com.ross.theovalguide.bootstrap;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.service.ClassCodeResolver;
+import com.ross.theovalguide.util.ClassCodeUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+/**
+ * Fills classes.code_normalized for rows written before the column existed, then warms
+ * {@link ClassCodeResolver} with every code.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ClassCodeBackfillRunner implements CommandLineRunner {
+    private final CourseClassRepository classes;
+    private final ClassCodeResolver resolver;
+
+    @Override
+    @Transactional
+    public void run(String... args) {
+        var missing = classes.findByCodeNormalizedIsNull();
+        if (!missing.isEmpty()) {
+            var taken = new HashSet<String>();
+            classes.findAllCodes().forEach(row -> taken.add(row.getCode()));
+            var dirty = new ArrayList<CourseClass>();
+            for (var c : missing) {
+                String normalized = ClassCodeUtil.normalize(c.getCode());
+                if (normalized == null) continue;
+                if (!taken.add(normalized)) {
+                    // two codes that only differ by case/spacing; the unique index would reject the second.
+                    // CourseClass keeps it unset through later edits until its code is renamed
+                    log.warn("Class {} ({}) duplicates normalized code {}; left unset until renamed or merged",
+                            c.getId(), c.getCode(), normalized);
+                    continue;
+                }
+                c.setCodeNormalized(normalized);
+                dirty.add(c);
+            }
+            classes.saveAll(dirty);
+            classes.flush();
+            log.info("Backfilled code_normalized for {} classes", dirty.size());
+        }
+        resolver.load(classes.findAllCodes());
+    }
+}
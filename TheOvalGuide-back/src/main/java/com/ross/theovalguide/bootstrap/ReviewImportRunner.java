@@ -0,0 +1,35 @@
+package com.ross.theovalguide.bootstrap;
+
+import com.ross.theovalguide.service.ReviewImportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * One-off import of a legacy review export, e.g.
+ * {@code java -jar app.jar --reviews.import.file=reviews.csv}.
+ * The file's extension picks the format: {@code .csv}, otherwise NDJSON. Runs once the startup backfills
+ * are done, and after a catalog load given in the same run.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "reviews.import.file")
+public class ReviewImportRunner {
+    private final ReviewImportService importer;
+
+    @Value("${reviews.import.file}")
+    private Path file;
+
+    @Order(2)
+    @EventListener(ApplicationReadyEvent.class)
+    public void run() throws IOException {
+        importer.importFile(file);
+    }
+}
@@ -0,0 +1,102 @@
+package com.ross.theovalguide.bootstrap;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.service.search.CatalogSearchIndex;
+import com.ross.theovalguide.service.search.IndexSnapshotStore;
+import com.ross.theovalguide.service.search.SearchDocument;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Fills {@link CatalogSearchIndex} at startup. With a snapshot on disk it loads that, then catches up
+ * on rows written since the snapshot and drops deleted ones in the background; otherwise it pages
+ * through the professors and classes tables. Later writes reach the index through CatalogChangedEvent.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexLoader implements CommandLineRunner {
+    private static final int PAGE_SIZE = 1000;
+
+    private final ProfessorRepository professors;
+    private final CourseClassRepository classes;
+    private final CatalogSearchIndex index;
+    private final Optional<IndexSnapshotStore> snapshots;
+
+    // updatedAt comes from each node's clock, so catch up a little before the watermark
+    @Value("${search.snapshot.catch-up-margin-ms:60000}")
+    private long catchUpMarginMs;
+
+    @Override
+    public void run(String... args) {
+        long started = System.nanoTime();
+
+        var snapshot = snapshots.flatMap(IndexSnapshotStore::read);
+        if (snapshot.isPresent()) {
+            snapshot.get().documents().forEach(index::upsert);
+            Instant since = snapshot.get().watermark().minusMillis(catchUpMarginMs);
+            int caughtUp = catchUp(since);
+            log.info("Search index loaded {} documents from snapshot (+{} changed since {}) in {} ms",
+                    index.size(), caughtUp, since, (System.nanoTime() - started) / 1_000_000);
+            Thread.ofVirtual().name("search-index-reconcile").start(this::removeDeleted);
+            return;
+        }
+
+        Page<Professor> profPage;
+        var page = PageRequest.of(0, PAGE_SIZE, Sort.by("id"));
+        do {
+            profPage = professors.findAll(page);
+            profPage.forEach(p -> index.upsert(SearchDocument.of(p)));
+            page = page.next();
+        } while (profPage.hasNext());
+
+        Page<CourseClass> classPage;
+        page = PageRequest.of(0, PAGE_SIZE, Sort.by("id"));
+        do {
+            classPage = classes.findAll(page);
+            classPage.forEach(c -> index.upsert(SearchDocument.of(c)));
+            page = page.next();
+        } while (classPage.hasNext());
+
+        log.info("Search index loaded {} documents in {} ms",
+                index.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private int catchUp(Instant since) {
+        var profRows = professors.findSearchRowsUpdatedSince(since);
+        profRows.forEach(row -> index.upsert(SearchDocument.of(Kind.PROFESSOR, row)));
+        var classRows = classes.findSearchRowsUpdatedSince(since);
+        classRows.forEach(row -> index.upsert(SearchDocument.of(Kind.CLASS, row)));
+        return profRows.size() + classRows.size();
+    }
+
+    /**
+     * Deletes leave no updatedAt behind, so compare ids once the node is already serving.
+     */
+    private void removeDeleted() {
+        try {
+            Instant before = Instant.now();
+            var present = new HashSet<UUID>(professors.findAllIds());
+            present.addAll(classes.findAllIds());
+            int removed = index.removeMissing(present, before);
+            if (removed > 0) log.info("Removed {} search documents deleted since the snapshot", removed);
+        } catch (RuntimeException e) {
+            log.warn("Search index reconcile failed", e);
+        }
+    }
+}
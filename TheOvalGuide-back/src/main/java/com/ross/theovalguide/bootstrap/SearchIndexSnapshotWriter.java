@@ -0,0 +1,50 @@
+package com.ross.theovalguide.bootstrap;
+
+import com.ross.theovalguide.service.search.CatalogSearchIndex;
+import com.ross.theovalguide.service.search.IndexSnapshotStore;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Persists the search index through {@link IndexSnapshotStore} periodically and on shutdown, skipping
+ * writes when nothing changed since the last one.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "search.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class SearchIndexSnapshotWriter {
+
+    private final CatalogSearchIndex index;
+    private final IndexSnapshotStore store;
+
+    private long written = -1;
+
+    @Scheduled(initialDelayString = "${search.snapshot.interval-ms:300000}",
+            fixedDelayString = "${search.snapshot.interval-ms:300000}")
+    public synchronized void writeIfChanged() {
+        long version = index.version();
+        if (version == written || index.size() == 0) return;
+        long started = System.nanoTime();
+        try {
+            var docs = index.documents();
+            store.write(docs);
+            written = version;
+            log.info("Wrote search index snapshot ({} documents) to {} in {} ms",
+                    docs.size(), store.path(), (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException e) {
+            log.warn("Could not write search index snapshot to {}", store.path(), e);
+        }
+    }
+
+    @PreDestroy
+    void onShutdown() {
+        writeIfChanged();
+    }
+}
@@ -1,12 +1,15 @@
 package com.ross.theovalguide.config;
 
+import com.ross.theovalguide.service.SessionAuthenticator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 
@@ -19,7 +22,7 @@ import static org.springframework.security.config.Customizer.withDefaults;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, SessionAuthenticator sessions) throws Exception {
         http
                 // Use the global CORS configuration from WebConfig
                 .cors(withDefaults())
@@ -27,6 +30,10 @@ public class SecurityConfig {
                 // Disable CSRF. This is common for stateless APIs or SPAs.
                 .csrf(AbstractHttpConfigurer::disable)
 
+                // The oval_session cookie is the session; no HttpSession is created
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilterBefore(new SessionAuthenticationFilter(sessions), UsernamePasswordAuthenticationFilter.class)
+
                 // Define endpoint authorization rules
                 .authorizeHttpRequests(auth -> auth
                         // 1. Allow all CORS pre-flight OPTIONS requests
@@ -38,6 +45,8 @@ public class SecurityConfig {
                         // 3. Allow public read-only access to specific API endpoints
                         .requestMatchers(HttpMethod.GET,
                                 "/api/search",
+                                "/api/search/all",
+                                "/api/search/suggest",
                                 "/api/classes/**",
                                 "/api/professors/**"
                         ).permitAll()
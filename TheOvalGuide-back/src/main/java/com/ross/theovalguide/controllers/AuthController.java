@@ -26,7 +26,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class AuthController {
 
-    static final String AUTH_COOKIE_NAME = "oval_session";
+    public static final String AUTH_COOKIE_NAME = "oval_session";
     private static final boolean COOKIE_SECURE = false;
 
     private final AuthService authService;
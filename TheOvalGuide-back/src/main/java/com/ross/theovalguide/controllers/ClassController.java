@@ -1,28 +1,40 @@
 package com.ross.theovalguide.controllers;
 
-import com.ross.theovalguide.DTOS.ClassResponse;
 import com.ross.theovalguide.DTOS.SummaryResponse;
-import com.ross.theovalguide.service.ClassQueryService;
+import com.ross.theovalguide.DTOS.review.ReviewPage;
+import com.ross.theovalguide.service.ReviewFeedService;
 import com.ross.theovalguide.service.SummaryService;
+import com.ross.theovalguide.service.page.PageReadModel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class ClassController {
-    private final ClassQueryService service;
+    private final PageReadModel pages;
     private final SummaryService summaryService;
+    private final ReviewFeedService feeds;
 
-    /// GET /api/classes/{code}
-    @GetMapping("/classes/{code}")
-    public ResponseEntity<ClassResponse> getOneByCode(@PathVariable String code) {
-        return ResponseEntity.ok(service.getClassByCode(code));
+    /// GET /api/classes/{code} — pre-serialized ClassResponse from PageReadModel, written out as-is
+    @GetMapping(value = "/classes/{code}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getOneByCode(@PathVariable String code) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(pages.classPage(code));
+    }
+
+    /// GET /api/classes/{code}/reviews?cursor=&limit= — newest first; pass back nextCursor for the following page
+    @GetMapping("/classes/{code}/reviews")
+    public ResponseEntity<ReviewPage> reviews(@PathVariable String code,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(feeds.classFeed(code, cursor, limit));
     }
 
     /// POST /api/classes/{code}/summary
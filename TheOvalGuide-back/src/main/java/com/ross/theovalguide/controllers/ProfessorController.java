@@ -1,28 +1,40 @@
 package com.ross.theovalguide.controllers;
 
-import com.ross.theovalguide.DTOS.ProfessorResponse;
 import com.ross.theovalguide.DTOS.SummaryResponse;
-import com.ross.theovalguide.service.ProfessorQueryService;
+import com.ross.theovalguide.DTOS.review.ReviewPage;
+import com.ross.theovalguide.service.ReviewFeedService;
 import com.ross.theovalguide.service.SummaryService;
+import com.ross.theovalguide.service.page.PageReadModel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 @RequestMapping("/api")
 @RequiredArgsConstructor
 public class ProfessorController {
-    private final ProfessorQueryService service;
+    private final PageReadModel pages;
     private final SummaryService summaryService;
+    private final ReviewFeedService feeds;
 
-    /// GET /api/professors/{slug}
-    @GetMapping("/professors/{slug}")
-    public ResponseEntity<ProfessorResponse> getOneBySlug(@PathVariable String slug) {
-        return ResponseEntity.ok(service.getProfessorBySlug(slug));
+    /// GET /api/professors/{slug} — pre-serialized ProfessorResponse from PageReadModel, written out as-is
+    @GetMapping(value = "/professors/{slug}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getOneBySlug(@PathVariable String slug) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(pages.professorPage(slug));
+    }
+
+    /// GET /api/professors/{slug}/reviews?cursor=&limit= — newest first; pass back nextCursor for the following page
+    @GetMapping("/professors/{slug}/reviews")
+    public ResponseEntity<ReviewPage> reviews(@PathVariable String slug,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(feeds.professorFeed(slug, cursor, limit));
     }
 
     /// POST /api/professors/{slug}/summary
@@ -5,7 +5,9 @@ import com.ross.theovalguide.model.CourseClass;
 import com.ross.theovalguide.model.Review;
 import com.ross.theovalguide.repo.CourseClassRepository;
 import com.ross.theovalguide.repo.ProfessorRepository;
-import com.ross.theovalguide.service.ReviewService;
+import com.ross.theovalguide.service.ClassCodeResolver;
+import com.ross.theovalguide.service.ReviewSubmitter;
+import com.ross.theovalguide.service.TagResolver;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -16,15 +18,18 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.net.URI;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/reviews")
 @RequiredArgsConstructor
 public class ReviewController {
 
-    private final ReviewService reviewService;
+    private final ReviewSubmitter submitter;
     private final ProfessorRepository professors;
     private final CourseClassRepository classes;
+    private final ClassCodeResolver classCodes;
+    private final TagResolver tags;
 
     @PostMapping
     public ResponseEntity<?> create(@RequestBody CreateReviewRequest req) {
@@ -55,8 +60,8 @@ public class ReviewController {
         }
         if (req.classCode() != null && !req.classCode().isBlank()) {
             String classCode = req.classCode().trim();
-            var c = classes.findByCodeIgnoreCase(classCode)
-                    .or(() -> classes.findFirstByCodeLoose(classCode));
+            // any case/spacing variant (CS2201 vs cs 2201) resolves to the same class
+            var c = classCodes.find(classCode);
 
             CourseClass courseClass = c.orElseGet(() -> {
                 if (!Boolean.TRUE.equals(req.createIfMissing())) {
@@ -86,11 +91,16 @@ public class ReviewController {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "professorSlug or classCode required");
         }
 
-        var saved = reviewService.createOrUpdate(review);
+        // labels -> ids only once the request is valid: new tags are committed here, so a rejected
+        // request must not reach this point
+        var tagIds = tags.resolve(req.tags());
+
+        // joins a group commit with concurrent submissions when reviews.group-commit.enabled
+        UUID id = submitter.submit(review, tagIds);
 
         return ResponseEntity
-                .created(URI.create("/api/reviews/" + saved.getId()))
-                .body(new IdResponse(saved.getId().toString()));
+                .created(URI.create("/api/reviews/" + id))
+                .body(new IdResponse(id.toString()));
     }
 
     public record IdResponse(String id) {
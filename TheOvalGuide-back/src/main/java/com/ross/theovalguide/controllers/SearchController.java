@@ -1,7 +1,9 @@
 package com.ross.theovalguide.controllers;
 
+import com.ross.theovalguide.DTOS.search.SearchPage;
 import com.ross.theovalguide.DTOS.search.SearchResponse;
 import com.ross.theovalguide.service.SearchService;
+import com.ross.theovalguide.service.search.SearchFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,20 +19,47 @@ public class SearchController {
     private final SearchService searchService;
 
     // Public fallback
+    /// Optional filters: university, department (exact, case-insensitive), minRating (professors' overall
+    /// rating), minDifficulty (classes' average difficulty); facets=true adds university/department counts
     @GetMapping("/search")
     public ResponseEntity<SearchResponse> search(@RequestParam("q") String q,
-                                                 @RequestParam(value = "limit", defaultValue = "10") int limit) {
+                                                 @RequestParam(value = "limit", defaultValue = "10") int limit,
+                                                 @RequestParam(value = "university", required = false) String university,
+                                                 @RequestParam(value = "department", required = false) String department,
+                                                 @RequestParam(value = "minRating", required = false) Double minRating,
+                                                 @RequestParam(value = "minDifficulty", required = false) Double minDifficulty,
+                                                 @RequestParam(value = "facets", defaultValue = "false") boolean facets) {
         var trimmed = q == null ? "" : q.trim();
         if (trimmed.length() < 3) {
             return ResponseEntity.ok(new SearchResponse(java.util.List.of()));
         }
-        return ResponseEntity.ok(searchService.search(trimmed, limit));
+        var filter = new SearchFilter(university, department, minRating, minDifficulty);
+        return ResponseEntity.ok(searchService.search(trimmed, limit, filter, facets));
+    }
+
+    /// GET /api/search/all — "see all results": ranked pages, pass back nextCursor for the following page
+    @GetMapping("/search/all")
+    public ResponseEntity<SearchPage> searchAll(@RequestParam("q") String q,
+                                                @RequestParam(value = "cursor", required = false) String cursor,
+                                                @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        var trimmed = q == null ? "" : q.trim();
+        if (trimmed.length() < 3) {
+            return ResponseEntity.ok(new SearchPage(java.util.List.of(), null));
+        }
+        return ResponseEntity.ok(searchService.searchPage(trimmed, cursor, limit));
+    }
+
+    /// GET /api/search/suggest — typeahead completions, no minimum length, never hits the database
+    @GetMapping("/search/suggest")
+    public ResponseEntity<SearchResponse> suggest(@RequestParam("q") String q,
+                                                  @RequestParam(value = "limit", defaultValue = "8") int limit) {
+        return ResponseEntity.ok(searchService.suggest(q, limit));
     }
 
     ///  Auth variant  maybe set up later
     @GetMapping("/auth/search")
     public ResponseEntity<SearchResponse> authSearch(@RequestParam("q") String q,
                                                      @RequestParam(value = "limit", defaultValue = "10") int limit) {
-        return search(q, limit);
+        return search(q, limit, null, null, null, null, false);
     }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.ross.theovalguide.model;
 
+import com.ross.theovalguide.service.page.PageEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -12,6 +13,7 @@ import lombok.Setter;
 @NoArgsConstructor
 @Entity
 @Table(name = "advice")
+@EntityListeners(PageEntityListener.class)
 public class Advice extends BaseEntity {
 
     @NotNull
@@ -1,27 +1,52 @@
 package com.ross.theovalguide.model;
 
+import com.ross.theovalguide.service.search.CatalogEntityListener;
+import com.ross.theovalguide.util.ClassCodeUtil;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
+import jakarta.persistence.Index;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.math.BigDecimal;
+import java.util.Objects;
 
 @Getter
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "classes")
+@Table(name = "classes", indexes = {
+        @Index(name = "ix_classes_updated_at", columnList = "updated_at"),
+        @Index(name = "ux_classes_code_normalized", columnList = "code_normalized", unique = true)
+})
+@EntityListeners(CatalogEntityListener.class)
 public class CourseClass extends BaseEntity {
 
 
     @Column(length = 50, unique = true, nullable = false)
     private String code;
 
+    // upper-case, space-less copy of code (ClassCodeUtil.normalize); kept in sync on every insert/update,
+    // except on rows ClassCodeBackfillRunner left null because another class already owns the normalized code
+    @Column(name = "code_normalized", length = 50)
+    private String codeNormalized;
+
+    // code as loaded, so an update can tell a rename from an edit of some other field
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private String loadedCode;
+
     @NotBlank
     @Size(max = 150)
     @Column(length = 150, nullable = false)
@@ -43,4 +68,44 @@ public class CourseClass extends BaseEntity {
 
     @Column(name = "total_ratings", nullable = false)
     private int totalRatings = 0;
-}
\ No newline at end of file
+
+    // running sum/count of review difficulties (difficulty is optional, so the count is not totalRatings);
+    // difficultyAvg = difficultySum / difficultyCount. Maintained like Professor.ratingSum
+    @Column(name = "difficulty_sum")
+    private Long difficultySum = 0L;
+
+    @Column(name = "difficulty_count")
+    private Integer difficultyCount = 0;
+
+    // reviews per difficulty 1..5, kept next to the sums so the page's histogram needs no GROUP BY
+    @Column(name = "difficulty_count_1")
+    private Integer difficultyCount1 = 0;
+
+    @Column(name = "difficulty_count_2")
+    private Integer difficultyCount2 = 0;
+
+    @Column(name = "difficulty_count_3")
+    private Integer difficultyCount3 = 0;
+
+    @Column(name = "difficulty_count_4")
+    private Integer difficultyCount4 = 0;
+
+    @Column(name = "difficulty_count_5")
+    private Integer difficultyCount5 = 0;
+
+    @PostLoad
+    void rememberCode() {
+        loadedCode = code;
+    }
+
+    @PrePersist
+    void normalizeCode() {
+        codeNormalized = ClassCodeUtil.normalize(code);
+    }
+
+    // a duplicate left unset stays unset until its code is renamed, or it would fail ux_classes_code_normalized
+    @PreUpdate
+    void renormalizeCode() {
+        if (codeNormalized != null || !Objects.equals(code, loadedCode)) normalizeCode();
+    }
+}
@@ -1,5 +1,6 @@
 package com.ross.theovalguide.model;
 
+import com.ross.theovalguide.service.search.CatalogEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -13,7 +14,8 @@ import java.math.BigDecimal;
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "professors")
+@Table(name = "professors", indexes = @Index(name = "ix_professors_updated_at", columnList = "updated_at"))
+@EntityListeners(CatalogEntityListener.class)
 public class Professor extends BaseEntity {
 
 
@@ -42,6 +44,27 @@ public class Professor extends BaseEntity {
     @Column(name = "total_ratings", nullable = false)
     private int totalRatings = 0;
 
+    // running sum of review ratings; overallRating = ratingSum / totalRatings. Maintained by ReviewService
+    // with atomic increments (null only until AggregateBackfillRunner fills rows that predate the column)
+    @Column(name = "rating_sum")
+    private Long ratingSum = 0L;
+
+    // reviews per rating 1..5, kept next to the sums so the page's histogram needs no GROUP BY
+    @Column(name = "rating_count_1")
+    private Integer ratingCount1 = 0;
+
+    @Column(name = "rating_count_2")
+    private Integer ratingCount2 = 0;
+
+    @Column(name = "rating_count_3")
+    private Integer ratingCount3 = 0;
+
+    @Column(name = "rating_count_4")
+    private Integer ratingCount4 = 0;
+
+    @Column(name = "rating_count_5")
+    private Integer ratingCount5 = 0;
+
     private static String slugify(String in) {
         if (in == null) return null;
         String s = in.trim().toLowerCase();
@@ -1,5 +1,6 @@
 package com.ross.theovalguide.model;
 
+import com.ross.theovalguide.service.page.PageEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
@@ -12,8 +13,12 @@ import org.hibernate.annotations.Check;
 @Setter
 @NoArgsConstructor
 @Entity
-@Table(name = "reviews")
+@Table(name = "reviews", indexes = {
+        @Index(name = "ix_reviews_professor_created", columnList = "professor_id, created_at, id"),
+        @Index(name = "ix_reviews_class_created", columnList = "class_id, created_at, id")
+})
 @Check(constraints = "(professor_id is not null) or (class_id is not null)")
+@EntityListeners(PageEntityListener.class)
 public class Review extends BaseEntity {
 
     @ManyToOne(fetch = FetchType.LAZY)                 // optional by default
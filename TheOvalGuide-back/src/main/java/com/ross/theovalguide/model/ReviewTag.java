@@ -1,5 +1,6 @@
 package com.ross.theovalguide.model;
 
+import com.ross.theovalguide.service.page.PageEntityListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
@@ -12,6 +13,7 @@ import lombok.Setter;
 @Entity
 @Table(name = "review_tags",
         uniqueConstraints = @UniqueConstraint(name = "uk_review_tag", columnNames = {"review_id", "tag_id"}))
+@EntityListeners(PageEntityListener.class)
 public class ReviewTag extends BaseEntity {
 
     @NotNull
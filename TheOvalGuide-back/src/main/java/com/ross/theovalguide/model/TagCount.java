@@ -0,0 +1,45 @@
+package com.ross.theovalguide.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.util.UUID;
+
+/**
+ * How many reviews of a professor or class (the subject) carry a tag. Maintained by ReviewService as tags
+ * are written so profile pages read their top tags off {@code ix_tag_counts_top} instead of grouping
+ * review_tags. Subject ids are professor or class ids; the two never collide.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@Entity
+@Table(name = "tag_counts",
+        indexes = @Index(name = "ix_tag_counts_top", columnList = "subject_id, review_count desc, tag_id"))
+public class TagCount {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "review_count", nullable = false)
+    private long reviewCount;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "subject_id", columnDefinition = "uuid", nullable = false)
+        private UUID subjectId;
+
+        @Column(name = "tag_id", columnDefinition = "uuid", nullable = false)
+        private UUID tagId;
+    }
+}
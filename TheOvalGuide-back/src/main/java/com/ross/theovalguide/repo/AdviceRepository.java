@@ -1,12 +1,33 @@
 package com.ross.theovalguide.repo;
 
 import com.ross.theovalguide.model.Advice;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
 public interface AdviceRepository extends JpaRepository<Advice, UUID> {
-    List<Advice> findTop20ByCourseClassIdOrderByCreatedAtDesc(UUID classId);
+    // newest advice with the author's username in the same query (no lazy user load per row)
+    @Query("""
+            select a.id as id, u.username as author, a.createdAt as createdAt, a.text as text
+            from Advice a
+              left join a.user u
+            where a.courseClass.id = :classId
+            order by a.createdAt desc
+            """)
+    List<AdviceRow> recentForClass(@Param("classId") UUID classId, Limit limit);
 
-}
\ No newline at end of file
+    interface AdviceRow {
+        UUID getId();
+
+        String getAuthor();
+
+        Instant getCreatedAt();
+
+        String getText();
+    }
+}
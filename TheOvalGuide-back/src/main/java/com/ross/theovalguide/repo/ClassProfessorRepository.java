@@ -15,4 +15,8 @@ public interface ClassProfessorRepository extends JpaRepository<ClassProfessor,
             """)
     List<Object[]> professorsForClass(UUID classId);
 
+    // catalog loader: every [class id, professor id] pair
+    @Query("select cp.courseClass.id, cp.professor.id from ClassProfessor cp")
+    List<Object[]> findAllPairs();
+
 }
\ No newline at end of file
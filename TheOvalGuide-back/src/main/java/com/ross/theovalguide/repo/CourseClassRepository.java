@@ -1,12 +1,18 @@
 package com.ross.theovalguide.repo;
 
 import com.ross.theovalguide.model.CourseClass;
-import org.springframework.data.domain.Page;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -14,9 +20,13 @@ public interface CourseClassRepository extends JpaRepository<CourseClass, UUID>
 
     Optional<CourseClass> findByCodeIgnoreCase(String code);
 
-    // Fuzzy search used by SearchService, handles code/title/department/university
+    // LIKE search (search.backend=like), handles code/title/department/university.
+    // Slice + projection: no count query, no entity hydration
     @Query("""
-              select c from CourseClass c
+              select c.id as id, c.code as searchKey, c.title as title, c.department as department,
+                     c.university as university, c.difficultyAvg as rating, c.totalRatings as totalRatings,
+                     c.updatedAt as updatedAt
+              from CourseClass c
               where
                 upper(c.code) like upper(concat('%', :q, '%'))
                 or upper(replace(c.code, ' ', '')) like upper(concat('%', :qNoSpace, '%'))
@@ -24,29 +34,205 @@ public interface CourseClassRepository extends JpaRepository<CourseClass, UUID>
                 or upper(c.department) like upper(concat('%', :q, '%'))
                 or upper(c.university) like upper(concat('%', :q, '%'))
             """)
-    Page<CourseClass> searchClasses(
+    Slice<SearchRow> searchClasses(
             @Param("q") String q,
             @Param("qNoSpace") String qNoSpace,
             Pageable pageable
     );
 
-    // Normalized exact match for codes ignoring spaces (CS2201 vs CS 2201)
+    // Keyset page of the LIKE search ordered by (totalRatings desc, id); cost does not grow with the page number
+    @Query("""
+              select c.id as id, c.code as searchKey, c.title as title, c.department as department,
+                     c.university as university, c.difficultyAvg as rating, c.totalRatings as totalRatings,
+                     c.updatedAt as updatedAt
+              from CourseClass c
+              where (upper(c.code) like upper(concat('%', :q, '%'))
+                     or upper(replace(c.code, ' ', '')) like upper(concat('%', :qNoSpace, '%'))
+                     or upper(c.title) like upper(concat('%', :q, '%'))
+                     or upper(c.department) like upper(concat('%', :q, '%'))
+                     or upper(c.university) like upper(concat('%', :q, '%')))
+                and (c.totalRatings < :score or (c.totalRatings = :score and c.id > :afterId))
+              order by c.totalRatings desc, c.id
+            """)
+    Slice<SearchRow> searchClassesAfter(
+            @Param("q") String q,
+            @Param("qNoSpace") String qNoSpace,
+            @Param("score") int score,
+            @Param("afterId") UUID afterId,
+            Pageable pageable
+    );
+
+    // Ranked full-text search (search.backend=postgres); search_tsv + GIN index come from db/postgres-fulltext.sql
     @Query(value = """
-            select *
-            from classes c
-            where upper(replace(c.code, ' ', '')) = upper(replace(:code, ' ', ''))
-            limit 1
+              select c.id as id, c.code as searchKey, c.title as title, c.department as department,
+                     c.university as university, c.difficulty_avg as rating, c.total_ratings as totalRatings,
+                     c.updated_at as updatedAt
+              from classes c, to_tsquery('simple', :tsq) query
+              where c.search_tsv @@ query
+              order by ts_rank(c.search_tsv, query) desc, c.total_ratings desc
+              limit :limit
             """, nativeQuery = true)
-    Optional<CourseClass> findByCodeNormalized(@Param("code") String code);
-
+    List<SearchRow> fullTextSearch(@Param("tsq") String tsq, @Param("limit") int limit);
 
-    // loose, space-insensitive exact match
-    @org.springframework.data.jpa.repository.Query(value = """
-              select * from classes c
-              where upper(replace(c.code, ' ', '')) = upper(replace(:code, ' ', ''))
-              limit 1
+    // Keyset page of the full-text search ordered by (rank desc, id)
+    @Query(value = """
+              select c.id as id, c.code as searchKey, c.title as title, c.department as department,
+                     c.university as university, c.difficulty_avg as rating, c.total_ratings as totalRatings,
+                     c.updated_at as updatedAt, r.score as score
+              from classes c, to_tsquery('simple', :tsq) query,
+                   lateral (select cast(ts_rank(c.search_tsv, query) as float8) as score) r
+              where c.search_tsv @@ query
+                and (r.score < :score or (r.score = :score and c.id > :afterId))
+              order by r.score desc, c.id
+              limit :limit
             """, nativeQuery = true)
-    java.util.Optional<com.ross.theovalguide.model.CourseClass> findFirstByCodeLoose(
-            @org.springframework.data.repository.query.Param("code") String code
+    List<RankedSearchRow> fullTextSearchAfter(
+            @Param("tsq") String tsq,
+            @Param("score") double score,
+            @Param("afterId") UUID afterId,
+            @Param("limit") int limit
     );
-}
\ No newline at end of file
+
+    // Snapshot catch-up: rows written since the snapshot's watermark (ix_classes_updated_at)
+    @Query("""
+              select c.id as id, c.code as searchKey, c.title as title, c.department as department,
+                     c.university as university, c.difficultyAvg as rating, c.totalRatings as totalRatings,
+                     c.updatedAt as updatedAt
+              from CourseClass c
+              where c.updatedAt >= :since
+            """)
+    List<SearchRow> findSearchRowsUpdatedSince(@Param("since") Instant since);
+
+    @Query("select c.id from CourseClass c")
+    List<UUID> findAllIds();
+
+    // Row as the search index sees it, e.g. after an aggregate increment that bypassed the entity listeners
+    @Query("""
+              select c.id as id, c.code as searchKey, c.title as title, c.department as department,
+                     c.university as university, c.difficultyAvg as rating, c.totalRatings as totalRatings,
+                     c.updatedAt as updatedAt
+              from CourseClass c
+              where c.id = :id
+            """)
+    Optional<SearchRow> findSearchRowById(@Param("id") UUID id);
+
+    // Atomic O(1) aggregate update, see ProfessorRepository.addRating. A review without a difficulty
+    // passes diffSign 0 and only moves totalRatings
+    @Modifying
+    @Query("""
+              update CourseClass c
+              set c.totalRatings = c.totalRatings + :sign,
+                  c.difficultySum = c.difficultySum + :diffSign * :difficulty,
+                  c.difficultyCount = c.difficultyCount + :diffSign,
+                  c.difficultyCount1 = c.difficultyCount1 + case when :difficulty = 1 then :diffSign else 0 end,
+                  c.difficultyCount2 = c.difficultyCount2 + case when :difficulty = 2 then :diffSign else 0 end,
+                  c.difficultyCount3 = c.difficultyCount3 + case when :difficulty = 3 then :diffSign else 0 end,
+                  c.difficultyCount4 = c.difficultyCount4 + case when :difficulty = 4 then :diffSign else 0 end,
+                  c.difficultyCount5 = c.difficultyCount5 + case when :difficulty = 5 then :diffSign else 0 end,
+                  c.difficultyAvg = case when c.difficultyCount + :diffSign > 0
+                      then round(cast(c.difficultySum + :diffSign * :difficulty as BigDecimal)
+                                 / (c.difficultyCount + :diffSign), 2) end,
+                  c.updatedAt = :now
+              where c.id = :id
+            """)
+    int addRating(@Param("id") UUID id,
+                  @Param("sign") int sign,
+                  @Param("difficulty") int difficulty,
+                  @Param("diffSign") int diffSign,
+                  @Param("now") Instant now);
+
+    // Repair job / backfill: difficulty histogram rebuilt from reviews; all rows, or only those missing it
+    @Modifying
+    @Query("""
+              update CourseClass c
+              set c.difficultyCount1 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 1),
+                  c.difficultyCount2 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 2),
+                  c.difficultyCount3 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 3),
+                  c.difficultyCount4 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 4),
+                  c.difficultyCount5 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 5)
+              where :all = true or c.difficultyCount1 is null
+            """)
+    int rebuildDifficultyHistograms(@Param("all") boolean all);
+
+    // Set-based fill of difficulty_sum/count for rows that predate them; total and average are recomputed alongside
+    @Modifying
+    @Query("""
+              update CourseClass c
+              set c.difficultySum = coalesce((select sum(r.difficulty) from Review r where r.courseClass = c), 0),
+                  c.difficultyCount = (select count(r.difficulty) from Review r where r.courseClass = c),
+                  c.totalRatings = (select count(r) from Review r where r.courseClass = c),
+                  c.difficultyAvg = (select round(cast(avg(r.difficulty) as BigDecimal), 2) from Review r where r.courseClass = c)
+              where c.difficultySum is null or c.difficultyCount is null
+            """)
+    int backfillDifficultySums();
+
+    // Bulk import: row locks on the classes recountDifficultySince will overwrite (see ProfessorRepository)
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+              select c.id from CourseClass c
+              where c.id in (select r.courseClass.id from Review r where r.updatedAt >= :since)
+              order by c.id
+            """)
+    List<UUID> lockReviewedSince(@Param("since") Instant since);
+
+    // Write-behind crash recovery and bulk import, see ProfessorRepository.recountRatingsSince
+    @Modifying
+    @Query("""
+              update CourseClass c
+              set c.totalRatings = (select count(r) from Review r where r.courseClass = c),
+                  c.difficultySum = coalesce((select sum(r.difficulty) from Review r where r.courseClass = c), 0),
+                  c.difficultyCount = (select count(r.difficulty) from Review r where r.courseClass = c),
+                  c.difficultyCount1 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 1),
+                  c.difficultyCount2 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 2),
+                  c.difficultyCount3 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 3),
+                  c.difficultyCount4 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 4),
+                  c.difficultyCount5 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 5),
+                  c.difficultyAvg = (select round(cast(avg(r.difficulty) as BigDecimal), 2) from Review r where r.courseClass = c),
+                  c.updatedAt = :now
+              where c.id in (select r.courseClass.id from Review r where r.updatedAt >= :since)
+            """)
+    int recountDifficultySince(@Param("since") Instant since, @Param("now") Instant now);
+
+    // Write-behind crash recovery for classes that lost a review to another one (AggregateWriteBehind.orphaned)
+    @Modifying
+    @Query("""
+              update CourseClass c
+              set c.totalRatings = (select count(r) from Review r where r.courseClass = c),
+                  c.difficultySum = coalesce((select sum(r.difficulty) from Review r where r.courseClass = c), 0),
+                  c.difficultyCount = (select count(r.difficulty) from Review r where r.courseClass = c),
+                  c.difficultyCount1 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 1),
+                  c.difficultyCount2 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 2),
+                  c.difficultyCount3 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 3),
+                  c.difficultyCount4 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 4),
+                  c.difficultyCount5 = (select count(r) from Review r where r.courseClass = c and r.difficulty = 5),
+                  c.difficultyAvg = (select round(cast(avg(r.difficulty) as BigDecimal), 2) from Review r where r.courseClass = c),
+                  c.updatedAt = :now
+              where c.id in :ids
+            """)
+    int recountDifficultyOf(@Param("ids") Collection<UUID> ids, @Param("now") Instant now);
+
+    // Code lookups go through ClassCodeResolver; these hit the unique ux_classes_code_normalized index
+    Optional<CourseClass> findByCodeNormalized(String codeNormalized);
+
+    @Query("select c.id from CourseClass c where c.codeNormalized = :code")
+    Optional<UUID> findIdByCodeNormalized(@Param("code") String codeNormalized);
+
+    @Query("select c.codeNormalized as code, c.id as id from CourseClass c where c.codeNormalized is not null")
+    List<CodeRow> findAllCodes();
+
+    List<CourseClass> findByCodeNormalizedIsNull();
+
+    // catalog loader: [code_normalized, id, title, department, university] of every class
+    @Query("""
+            select c.codeNormalized, c.id, c.title, c.department, c.university
+            from CourseClass c
+            where c.codeNormalized is not null
+            """)
+    List<Object[]> findCatalogRows();
+
+    interface CodeRow {
+        String getCode();
+
+        UUID getId();
+    }
+}
@@ -1,13 +1,29 @@
 package com.ross.theovalguide.repo;
 
 import com.ross.theovalguide.model.Note;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface NoteRepository extends JpaRepository<Note, UUID> {
-    List<Note> findTop20ByCourseClassIdOrderByCreatedAtDesc(UUID classId);
+    // newest notes plus the class's total note count (window count runs before the limit)
+    @Query("""
+            select n.id as id, n.fileUrl as fileUrl, count(*) over () as total
+            from Note n
+            where n.courseClass.id = :classId
+            order by n.createdAt desc
+            """)
+    List<NoteRow> recentForClass(@Param("classId") UUID classId, Limit limit);
 
-    long countByCourseClassId(UUID classId);
-}
\ No newline at end of file
+    interface NoteRow {
+        UUID getId();
+
+        String getFileUrl();
+
+        Long getTotal();
+    }
+}
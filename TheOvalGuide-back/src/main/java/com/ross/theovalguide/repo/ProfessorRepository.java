@@ -3,6 +3,7 @@ package com.ross.theovalguide.repo;
 import com.ross.theovalguide.model.Professor;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -13,18 +14,229 @@ public interface ProfessorRepository extends JpaRepository<Professor, UUID> {
 
     boolean existsBySlugIgnoreCase(String slug);
 
+    // exact slug hit for search, projected
     @org.springframework.data.jpa.repository.Query("""
-              select p from Professor p
+              select p.id as id, p.slug as searchKey, p.name as title, p.department as department,
+                     p.university as university, p.overallRating as rating, p.totalRatings as totalRatings,
+                     p.updatedAt as updatedAt
+              from Professor p
+              where upper(p.slug) = upper(:slug)
+            """)
+    Optional<SearchRow> findSearchRowBySlug(@org.springframework.data.repository.query.Param("slug") String slug);
+
+    // LIKE search (search.backend=like). Slice + projection: no count query, no entity hydration
+    @org.springframework.data.jpa.repository.Query("""
+              select p.id as id, p.slug as searchKey, p.name as title, p.department as department,
+                     p.university as university, p.overallRating as rating, p.totalRatings as totalRatings,
+                     p.updatedAt as updatedAt
+              from Professor p
               where upper(p.name) like upper(concat('%', :q, '%'))
                  or upper(p.department) like upper(concat('%', :q, '%'))
                  or upper(p.university) like upper(concat('%', :q, '%'))
                  or upper(p.slug) like upper(concat('%', :slug, '%'))
             """)
-    org.springframework.data.domain.Page<Professor> searchProfessors(
+    org.springframework.data.domain.Slice<SearchRow> searchProfessors(
+            @org.springframework.data.repository.query.Param("q") String q,
+            @org.springframework.data.repository.query.Param("slug") String slug,
+            org.springframework.data.domain.Pageable pageable
+    );
+
+    // Keyset page of the LIKE search ordered by (totalRatings desc, id); cost does not grow with the page number
+    @org.springframework.data.jpa.repository.Query("""
+              select p.id as id, p.slug as searchKey, p.name as title, p.department as department,
+                     p.university as university, p.overallRating as rating, p.totalRatings as totalRatings,
+                     p.updatedAt as updatedAt
+              from Professor p
+              where (upper(p.name) like upper(concat('%', :q, '%'))
+                     or upper(p.department) like upper(concat('%', :q, '%'))
+                     or upper(p.university) like upper(concat('%', :q, '%'))
+                     or upper(p.slug) like upper(concat('%', :slug, '%')))
+                and (p.totalRatings < :score or (p.totalRatings = :score and p.id > :afterId))
+              order by p.totalRatings desc, p.id
+            """)
+    org.springframework.data.domain.Slice<SearchRow> searchProfessorsAfter(
             @org.springframework.data.repository.query.Param("q") String q,
             @org.springframework.data.repository.query.Param("slug") String slug,
+            @org.springframework.data.repository.query.Param("score") int score,
+            @org.springframework.data.repository.query.Param("afterId") UUID afterId,
             org.springframework.data.domain.Pageable pageable
     );
 
+    // Ranked full-text search (search.backend=postgres); search_tsv + GIN index come from db/postgres-fulltext.sql
+    @org.springframework.data.jpa.repository.Query(value = """
+              select p.id as id, p.slug as searchKey, p.name as title, p.department as department,
+                     p.university as university, p.overall_rating as rating, p.total_ratings as totalRatings,
+                     p.updated_at as updatedAt
+              from professors p, to_tsquery('simple', :tsq) query
+              where p.search_tsv @@ query
+              order by ts_rank(p.search_tsv, query) desc, p.total_ratings desc
+              limit :limit
+            """, nativeQuery = true)
+    List<SearchRow> fullTextSearch(
+            @org.springframework.data.repository.query.Param("tsq") String tsq,
+            @org.springframework.data.repository.query.Param("limit") int limit
+    );
+
+    // Keyset page of the full-text search ordered by (rank desc, id)
+    @org.springframework.data.jpa.repository.Query(value = """
+              select p.id as id, p.slug as searchKey, p.name as title, p.department as department,
+                     p.university as university, p.overall_rating as rating, p.total_ratings as totalRatings,
+                     p.updated_at as updatedAt, r.score as score
+              from professors p, to_tsquery('simple', :tsq) query,
+                   lateral (select cast(ts_rank(p.search_tsv, query) as float8) as score) r
+              where p.search_tsv @@ query
+                and (r.score < :score or (r.score = :score and p.id > :afterId))
+              order by r.score desc, p.id
+              limit :limit
+            """, nativeQuery = true)
+    List<RankedSearchRow> fullTextSearchAfter(
+            @org.springframework.data.repository.query.Param("tsq") String tsq,
+            @org.springframework.data.repository.query.Param("score") double score,
+            @org.springframework.data.repository.query.Param("afterId") UUID afterId,
+            @org.springframework.data.repository.query.Param("limit") int limit
+    );
+
+    // Snapshot catch-up: rows written since the snapshot's watermark (ix_professors_updated_at)
+    @org.springframework.data.jpa.repository.Query("""
+              select p.id as id, p.slug as searchKey, p.name as title, p.department as department,
+                     p.university as university, p.overallRating as rating, p.totalRatings as totalRatings,
+                     p.updatedAt as updatedAt
+              from Professor p
+              where p.updatedAt >= :since
+            """)
+    List<SearchRow> findSearchRowsUpdatedSince(@org.springframework.data.repository.query.Param("since") java.time.Instant since);
+
+    @org.springframework.data.jpa.repository.Query("select p.id from Professor p")
+    List<UUID> findAllIds();
+
+    // Row as the search index sees it, e.g. after an aggregate increment that bypassed the entity listeners
+    @org.springframework.data.jpa.repository.Query("""
+              select p.id as id, p.slug as searchKey, p.name as title, p.department as department,
+                     p.university as university, p.overallRating as rating, p.totalRatings as totalRatings,
+                     p.updatedAt as updatedAt
+              from Professor p
+              where p.id = :id
+            """)
+    Optional<SearchRow> findSearchRowById(@org.springframework.data.repository.query.Param("id") UUID id);
+
+    // Atomic O(1) aggregate update for one review (sign +1) or its removal (sign -1): sum, count, the
+    // rating's histogram bucket and the derived average in one row-locking UPDATE, no read-modify-write.
+    // The right-hand sides all see the old row, so the average is computed from the new sum and count
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("""
+              update Professor p
+              set p.ratingSum = p.ratingSum + :sign * :rating,
+                  p.totalRatings = p.totalRatings + :sign,
+                  p.ratingCount1 = p.ratingCount1 + case when :rating = 1 then :sign else 0 end,
+                  p.ratingCount2 = p.ratingCount2 + case when :rating = 2 then :sign else 0 end,
+                  p.ratingCount3 = p.ratingCount3 + case when :rating = 3 then :sign else 0 end,
+                  p.ratingCount4 = p.ratingCount4 + case when :rating = 4 then :sign else 0 end,
+                  p.ratingCount5 = p.ratingCount5 + case when :rating = 5 then :sign else 0 end,
+                  p.overallRating = case when p.totalRatings + :sign > 0
+                      then round(cast(p.ratingSum + :sign * :rating as BigDecimal) / (p.totalRatings + :sign), 2) end,
+                  p.updatedAt = :now
+              where p.id = :id
+            """)
+    int addRating(@org.springframework.data.repository.query.Param("id") UUID id,
+                  @org.springframework.data.repository.query.Param("rating") int rating,
+                  @org.springframework.data.repository.query.Param("sign") int sign,
+                  @org.springframework.data.repository.query.Param("now") java.time.Instant now);
+
+    // Repair job / backfill: rating histogram rebuilt from reviews; all rows, or only those missing it
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("""
+              update Professor p
+              set p.ratingCount1 = (select count(r) from Review r where r.professor = p and r.rating = 1),
+                  p.ratingCount2 = (select count(r) from Review r where r.professor = p and r.rating = 2),
+                  p.ratingCount3 = (select count(r) from Review r where r.professor = p and r.rating = 3),
+                  p.ratingCount4 = (select count(r) from Review r where r.professor = p and r.rating = 4),
+                  p.ratingCount5 = (select count(r) from Review r where r.professor = p and r.rating = 5)
+              where :all = true or p.ratingCount1 is null
+            """)
+    int rebuildRatingHistograms(@org.springframework.data.repository.query.Param("all") boolean all);
+
+    // Set-based fill of rating_sum for rows that predate it; count and average are recomputed alongside
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("""
+              update Professor p
+              set p.ratingSum = coalesce((select sum(r.rating) from Review r where r.professor = p), 0),
+                  p.totalRatings = (select count(r) from Review r where r.professor = p),
+                  p.overallRating = (select round(cast(avg(r.rating) as BigDecimal), 2) from Review r where r.professor = p)
+              where p.ratingSum is null
+            """)
+    int backfillRatingSums();
+
+    // Bulk import: row locks on the professors recountRatingsSince will overwrite, taken before it reads reviews,
+    // so a live addRating either commits first (and is counted) or waits and applies on top of the recount
+    @org.springframework.data.jpa.repository.Lock(jakarta.persistence.LockModeType.PESSIMISTIC_WRITE)
+    @org.springframework.data.jpa.repository.Query("""
+              select p.id from Professor p
+              where p.id in (select r.professor.id from Review r where r.updatedAt >= :since)
+              order by p.id
+            """)
+    List<UUID> lockReviewedSince(@org.springframework.data.repository.query.Param("since") java.time.Instant since);
+
+    // Write-behind crash recovery and bulk import: every aggregate of the professors with reviews written
+    // since :since, recomputed from reviews in one statement. Absolute values, so recounting a professor
+    // that lost nothing is harmless
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("""
+              update Professor p
+              set p.ratingSum = coalesce((select sum(r.rating) from Review r where r.professor = p), 0),
+                  p.totalRatings = (select count(r) from Review r where r.professor = p),
+                  p.ratingCount1 = (select count(r) from Review r where r.professor = p and r.rating = 1),
+                  p.ratingCount2 = (select count(r) from Review r where r.professor = p and r.rating = 2),
+                  p.ratingCount3 = (select count(r) from Review r where r.professor = p and r.rating = 3),
+                  p.ratingCount4 = (select count(r) from Review r where r.professor = p and r.rating = 4),
+                  p.ratingCount5 = (select count(r) from Review r where r.professor = p and r.rating = 5),
+                  p.overallRating = (select round(cast(avg(r.rating) as BigDecimal), 2) from Review r where r.professor = p),
+                  p.updatedAt = :now
+              where p.id in (select r.professor.id from Review r where r.updatedAt >= :since)
+            """)
+    int recountRatingsSince(@org.springframework.data.repository.query.Param("since") java.time.Instant since,
+                            @org.springframework.data.repository.query.Param("now") java.time.Instant now);
+
+    // Write-behind crash recovery for professors that lost a review to another one (AggregateWriteBehind.orphaned)
+    @org.springframework.data.jpa.repository.Modifying
+    @org.springframework.data.jpa.repository.Query("""
+              update Professor p
+              set p.ratingSum = coalesce((select sum(r.rating) from Review r where r.professor = p), 0),
+                  p.totalRatings = (select count(r) from Review r where r.professor = p),
+                  p.ratingCount1 = (select count(r) from Review r where r.professor = p and r.rating = 1),
+                  p.ratingCount2 = (select count(r) from Review r where r.professor = p and r.rating = 2),
+                  p.ratingCount3 = (select count(r) from Review r where r.professor = p and r.rating = 3),
+                  p.ratingCount4 = (select count(r) from Review r where r.professor = p and r.rating = 4),
+                  p.ratingCount5 = (select count(r) from Review r where r.professor = p and r.rating = 5),
+                  p.overallRating = (select round(cast(avg(r.rating) as BigDecimal), 2) from Review r where r.professor = p),
+                  p.updatedAt = :now
+              where p.id in :ids
+            """)
+    int recountRatingsOf(@org.springframework.data.repository.query.Param("ids") java.util.Collection<UUID> ids,
+                         @org.springframework.data.repository.query.Param("now") java.time.Instant now);
+
+    @org.springframework.data.jpa.repository.Query("select lower(p.slug) as slug, p.id as id from Professor p")
+    List<SlugRow> findAllSlugs();
+
+    interface SlugRow {
+        String getSlug();
+
+        UUID getId();
+    }
+
+    // catalog loader: who already exists, and which slugs are taken
+    @org.springframework.data.jpa.repository.Query("""
+              select p.id as id, lower(p.slug) as slug, p.name as name, p.university as university
+              from Professor p
+            """)
+    List<NameRow> findAllNames();
+
+    interface NameRow {
+        UUID getId();
+
+        String getSlug();
+
+        String getName();
 
-}
\ No newline at end of file
+        String getUniversity();
+    }
+}
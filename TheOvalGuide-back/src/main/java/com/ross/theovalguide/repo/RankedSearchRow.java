@@ -0,0 +1,8 @@
+package com.ross.theovalguide.repo;
+
+/**
+ * {@link SearchRow} plus the rank the database ordered it by, for keyset paging.
+ */
+public interface RankedSearchRow extends SearchRow {
+    Double getScore();
+}
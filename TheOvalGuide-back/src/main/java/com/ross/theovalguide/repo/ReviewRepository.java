@@ -1,54 +1,88 @@
 package com.ross.theovalguide.repo;
 
 import com.ross.theovalguide.model.Review;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ReviewRepository extends JpaRepository<Review, UUID> {
 
-    // buckets for PROFESSOR ratings (5..1)
+    // Stored values of a review before an edit, so ReviewService can back them out of the running aggregates.
+    // COMMIT flush mode: read the row as stored, not the caller's pending changes
+    @QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
     @Query("""
-            select r.rating as rating, count(r) as cnt
+            select r.rating as rating, r.difficulty as difficulty,
+                   r.professor.id as professorId, r.courseClass.id as classId
             from Review r
-            where r.professor.id = :profId
-            group by r.rating
+            where r.id = :id
             """)
-    List<Object[]> ratingBucketsForProfessor(@Param("profId") UUID profId);
+    Optional<StoredReview> findStoredById(@Param("id") UUID id);
 
-    // buckets for CLASS difficulty (5..1)
-    @Query("""
-            select r.difficulty as diff, count(r) as cnt
-            from Review r
-            where r.courseClass.id = :classId and r.difficulty is not null
-            group by r.difficulty
-            """)
-    List<Object[]> difficultyBucketsForClass(@Param("classId") UUID classId);
+    interface StoredReview {
+        Integer getRating();
 
-    // aggregates used by ReviewService
-    @Query("select avg(r.rating) from Review r where r.professor.id = :profId")
-    Double avgRatingForProfessor(@Param("profId") UUID profId);
+        Integer getDifficulty();
 
-    @Query("select count(r) from Review r where r.professor.id = :profId")
-    long countForProfessor(@Param("profId") UUID profId);
+        UUID getProfessorId();
 
-    @Query("select avg(r.difficulty) from Review r where r.courseClass.id = :classId and r.difficulty is not null")
-    Double avgDifficultyForClass(@Param("classId") UUID classId);
+        UUID getClassId();
+    }
 
-    @Query("select count(r) from Review r where r.courseClass.id = :classId")
-    long countForClass(@Param("classId") UUID classId);
+    // Review feeds, newest first, keyset on (createdAt, id) over ix_reviews_professor_created / ix_reviews_class_created.
+    // Class and author are fetch-joined: every feed item shows both.
+    @Query("""
+            select r
+            from Review r
+            left join fetch r.courseClass c
+            left join fetch r.user u
+            where r.professor.id = :profId
+            order by r.createdAt desc, r.id desc
+            """)
+    List<Review> feedForProfessor(@Param("profId") UUID profId, Limit limit);
 
     @Query("""
             select r
             from Review r
             left join fetch r.courseClass c
+            left join fetch r.user u
             where r.professor.id = :profId
-            order by r.createdAt desc
+              and (r.createdAt < :at or (r.createdAt = :at and r.id < :afterId))
+            order by r.createdAt desc, r.id desc
             """)
-    List<Review> findByProfessorIdWithClass(UUID profId);
+    List<Review> feedForProfessorAfter(@Param("profId") UUID profId,
+                                       @Param("at") Instant at,
+                                       @Param("afterId") UUID afterId,
+                                       Limit limit);
 
+    @Query("""
+            select r
+            from Review r
+            left join fetch r.courseClass c
+            left join fetch r.user u
+            where r.courseClass.id = :classId
+            order by r.createdAt desc, r.id desc
+            """)
+    List<Review> feedForClass(@Param("classId") UUID classId, Limit limit);
 
-}
\ No newline at end of file
+    @Query("""
+            select r
+            from Review r
+            left join fetch r.courseClass c
+            left join fetch r.user u
+            where r.courseClass.id = :classId
+              and (r.createdAt < :at or (r.createdAt = :at and r.id < :afterId))
+            order by r.createdAt desc, r.id desc
+            """)
+    List<Review> feedForClassAfter(@Param("classId") UUID classId,
+                                   @Param("at") Instant at,
+                                   @Param("afterId") UUID afterId,
+                                   Limit limit);
+}
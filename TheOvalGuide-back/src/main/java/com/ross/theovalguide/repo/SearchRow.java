@@ -0,0 +1,27 @@
+package com.ross.theovalguide.repo;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Projection of the columns search needs from a professor or class row, so search queries never
+ * hydrate full entities.
+ */
+public interface SearchRow {
+    UUID getId();
+
+    String getSearchKey();     // slug for professors, code for classes
+
+    String getTitle();         // professor name or class title
+
+    String getDepartment();
+
+    String getUniversity();
+
+    BigDecimal getRating();    // overall for professors, difficulty for classes
+
+    Integer getTotalRatings();
+
+    Instant getUpdatedAt();
+}
@@ -1,9 +1,13 @@
 package com.ross.theovalguide.repo;
 
+import com.ross.theovalguide.model.Role;
 import com.ross.theovalguide.model.SessionToken;
 import com.ross.theovalguide.model.UserAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,4 +18,22 @@ public interface SessionTokenRepository extends JpaRepository<SessionToken, UUID
     long deleteByUser(UserAccount user);
 
     List<SessionToken> findAllByUser(UserAccount user);
+
+    // what request authentication needs, in one query and without loading the entities
+    @Query("""
+            select u.id as userId, u.username as username, u.role as role, t.expiresAt as expiresAt
+            from SessionToken t join t.user u
+            where t.tokenHash = :hash
+            """)
+    Optional<SessionRow> findSessionByTokenHash(@Param("hash") String tokenHash);
+
+    interface SessionRow {
+        UUID getUserId();
+
+        String getUsername();
+
+        Role getRole();
+
+        Instant getExpiresAt();
+    }
 }
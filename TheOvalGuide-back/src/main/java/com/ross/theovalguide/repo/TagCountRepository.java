@@ -0,0 +1,60 @@
+package com.ross.theovalguide.repo;
+
+import com.ross.theovalguide.model.TagCount;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface TagCountRepository extends JpaRepository<TagCount, TagCount.Key> {
+
+    // top tags of a professor or class: (tag id, upper label, review count), read in index order
+    @Query("""
+            select t.id, upper(t.label), tc.reviewCount
+            from TagCount tc, Tag t
+            where tc.key.subjectId = :subjectId
+              and tc.reviewCount > 0
+              and t.id = tc.key.tagId
+            order by tc.reviewCount desc, tc.key.tagId
+            """)
+    List<Object[]> topTags(@Param("subjectId") UUID subjectId, Limit limit);
+
+    // zero rows for (subject, tag) pairs that have none yet, so add() below has something to move
+    @Modifying
+    @Query(value = """
+            insert into tag_counts (subject_id, tag_id, review_count)
+            select :subjectId, t.id, 0 from tags t where t.id in (:tagIds)
+            on conflict do nothing
+            """, nativeQuery = true)
+    int ensure(@Param("subjectId") UUID subjectId, @Param("tagIds") Collection<UUID> tagIds);
+
+    // atomic so concurrent taggers of the same subject cannot lose each other's increments
+    @Modifying
+    @Query("""
+            update TagCount tc set tc.reviewCount = tc.reviewCount + :delta
+            where tc.key.subjectId in :subjectIds and tc.key.tagId in :tagIds
+            """)
+    int add(@Param("subjectIds") Collection<UUID> subjectIds, @Param("tagIds") Collection<UUID> tagIds,
+            @Param("delta") long delta);
+
+    // recount every (subject, tag) pair from review_tags into an empty table (AggregateBackfillRunner)
+    @Modifying
+    @Query(value = """
+            insert into tag_counts (subject_id, tag_id, review_count)
+            select r.professor_id, rt.tag_id, count(*)
+            from review_tags rt join reviews r on r.id = rt.review_id
+            where r.professor_id is not null
+            group by r.professor_id, rt.tag_id
+            union all
+            select r.class_id, rt.tag_id, count(*)
+            from review_tags rt join reviews r on r.id = rt.review_id
+            where r.class_id is not null
+            group by r.class_id, rt.tag_id
+            """, nativeQuery = true)
+    int insertRecounted();
+}
@@ -0,0 +1,33 @@
+package com.ross.theovalguide.repo;
+
+import com.ross.theovalguide.model.Tag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface TagRepository extends JpaRepository<Tag, UUID> {
+
+    // (lower-cased label, id) of every tag matching one of the lower-cased labels
+    @Query("select lower(t.label) as label, t.id as id from Tag t where lower(t.label) in :labels")
+    List<LabelRow> findByLowerLabels(@Param("labels") Collection<String> labels);
+
+    // a concurrent insert of the same label wins silently; read the id back with findByLowerLabels
+    @Modifying
+    @Query(value = """
+            insert into tags (id, created_at, updated_at, label) values (:id, :now, :now, :label)
+            on conflict do nothing
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("id") UUID id, @Param("label") String label, @Param("now") Instant now);
+
+    interface LabelRow {
+        String getLabel();
+
+        UUID getId();
+    }
+}
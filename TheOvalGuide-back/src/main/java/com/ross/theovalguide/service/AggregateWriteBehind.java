@@ -0,0 +1,384 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.service.search.CatalogChangedEvent;
+import com.ross.theovalguide.service.search.SearchDocument;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind for the professor and class aggregates. With reviews.aggregates.write-behind.enabled,
+ * ReviewService hands its deltas here after commit instead of updating the rows itself; they are merged
+ * per entity in striped in-memory accumulators and written by {@link #flush()} every
+ * reviews.aggregates.flush-ms as one JDBC batch of UPDATEs, one per touched row. A hot professor then
+ * takes one row lock per interval instead of one per review, and review writes never wait for it.
+ * Jobs that recount aggregates from {@code reviews} run through {@link #exclusively} so they neither miss
+ * nor double-count a buffered delta.
+ * <p>
+ * Deltas buffered at a crash are lost. A marker file records since when that can have happened; it is
+ * moved forward after every flush and deleted after the final flush on shutdown. A start that finds the
+ * marker recounts, from {@code reviews}, every professor and class with a review written since then. A
+ * professor or class that lost a review to another one may have no such review left, so ReviewService
+ * reports it through {@link #orphaned} and its id is kept in the marker until its delta has been written.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AggregateWriteBehind {
+
+    private static final int STRIPES = 16;
+    // transactions that were open across a flush can commit their deltas just after it
+    private static final Duration MARKER_MARGIN = Duration.ofMinutes(1);
+
+    private static final String PROFESSOR_SQL = """
+            update professors set
+              rating_sum = rating_sum + ?, total_ratings = total_ratings + ?,
+              rating_count_1 = rating_count_1 + ?, rating_count_2 = rating_count_2 + ?,
+              rating_count_3 = rating_count_3 + ?, rating_count_4 = rating_count_4 + ?,
+              rating_count_5 = rating_count_5 + ?,
+              overall_rating = case when total_ratings + ? > 0
+                  then round(cast(rating_sum + ? as numeric) / (total_ratings + ?), 2) end,
+              updated_at = ?
+            where id = ?
+            """;
+
+    private static final String CLASS_SQL = """
+            update classes set
+              total_ratings = total_ratings + ?, difficulty_sum = difficulty_sum + ?,
+              difficulty_count = difficulty_count + ?,
+              difficulty_count_1 = difficulty_count_1 + ?, difficulty_count_2 = difficulty_count_2 + ?,
+              difficulty_count_3 = difficulty_count_3 + ?, difficulty_count_4 = difficulty_count_4 + ?,
+              difficulty_count_5 = difficulty_count_5 + ?,
+              difficulty_avg = case when difficulty_count + ? > 0
+                  then round(cast(difficulty_sum + ? as numeric) / (difficulty_count + ?), 2) end,
+              updated_at = ?
+            where id = ?
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ProfessorRepository professors;
+    private final CourseClassRepository classes;
+    private final ApplicationEventPublisher events;
+
+    @Value("${reviews.aggregates.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${reviews.aggregates.write-behind.marker:data/aggregates.pending}")
+    private Path marker;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    // shared by review transactions from just before their commit until their deltas are buffered
+    private final ReentrantReadWriteLock commits = new ReentrantReadWriteLock();
+
+    // professors and classes that lost a review, until a marker older than that is written; also guards the file
+    private final Map<UUID, Orphan> orphans = new HashMap<>();
+
+    {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Stripe();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Professor deltas: [rating sum, count, bucket 1..5]. Applied after the current transaction commits.
+     */
+    public void addRating(UUID professorId, int rating, int sign) {
+        addRatings(professorId, ratingDelta(rating, sign));
+    }
+
+    /**
+     * Class deltas: [total, difficulty sum, difficulty count, bucket 1..5]; diffSign 0 for no difficulty.
+     */
+    public void addClassRating(UUID classId, int sign, int difficulty, int diffSign) {
+        addClassRatings(classId, classDelta(sign, difficulty, diffSign));
+    }
+
+    /**
+     * A professor delta already summed over several reviews, see {@link #ratingDelta}.
+     */
+    public void addRatings(UUID professorId, long[] delta) {
+        afterCommit(() -> stripe(professorId).add(stripe(professorId).professors, professorId, delta));
+    }
+
+    /**
+     * A class delta already summed over several reviews, see {@link #classDelta}.
+     */
+    public void addClassRatings(UUID classId, long[] delta) {
+        afterCommit(() -> stripe(classId).add(stripe(classId).classes, classId, delta));
+    }
+
+    public static long[] ratingDelta(int rating, int sign) {
+        long[] d = new long[7];
+        d[0] = (long) sign * rating;
+        d[1] = sign;
+        d[1 + rating] = sign;
+        return d;
+    }
+
+    public static long[] classDelta(int sign, int difficulty, int diffSign) {
+        long[] d = new long[8];
+        d[0] = sign;
+        d[1] = (long) diffSign * difficulty;
+        d[2] = diffSign;
+        if (diffSign != 0) d[2 + difficulty] = diffSign;
+        return d;
+    }
+
+    // element-wise sum into the entity's accumulator
+    public static void merge(Map<UUID, long[]> into, UUID id, long[] delta) {
+        long[] acc = into.computeIfAbsent(id, k -> new long[delta.length]);
+        for (int i = 0; i < delta.length; i++) acc[i] += delta[i];
+    }
+
+    /**
+     * Writes merged deltas in the current transaction, one JDBC batch of UPDATEs per table and one UPDATE per
+     * row. Used by {@link #flush()}, and by ReviewService for a group commit when write-behind is off.
+     */
+    public void write(Map<UUID, long[]> profs, Map<UUID, long[]> cls, Timestamp now) {
+        if (!profs.isEmpty()) jdbc.batchUpdate(PROFESSOR_SQL, professorArgs(profs, now));
+        if (!cls.isEmpty()) jdbc.batchUpdate(CLASS_SQL, classArgs(cls, now));
+    }
+
+    /**
+     * Records, within the review's transaction, a professor or class that review just moved away from.
+     * Recovery finds subjects through their reviews written since the marker, and this one may have none left.
+     */
+    public void orphaned(Kind kind, UUID id) {
+        if (!enabled) return;
+        synchronized (orphans) {
+            orphans.put(id, new Orphan(kind, Instant.now()));
+            try {
+                Files.writeString(marker, kind + " " + id + "\n", StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                log.warn("Could not write aggregate marker {}", marker, e);
+            }
+        }
+    }
+
+    /**
+     * Runs {@code work}, which overwrites stored aggregates with values recounted from {@code reviews}, with
+     * nothing buffered and no review commit in between: every delta is flushed first, and review transactions
+     * wait at commit until it returns. The recount and the stored rows then agree on which reviews exist,
+     * and the deltas of reviews committed later apply on top. Keep {@code work} short, and away from
+     * {@code tag_counts}, whose rows the waiting transactions may hold.
+     *
+     * @throws IllegalStateException if the flush fails, rather than recount under deltas still buffered
+     */
+    public <T> T exclusively(Supplier<T> work) {
+        if (!enabled) return work.get();
+        commits.writeLock().lock();
+        try {
+            flush();
+            if (pending() > 0) throw new IllegalStateException("aggregate flush failed; not recounting over buffered deltas");
+            return work.get();
+        } finally {
+            commits.writeLock().unlock();
+        }
+    }
+
+    @PostConstruct
+    void recover() {
+        if (!enabled) return;
+        Marker found = readMarker();
+        if (found != null) {
+            Instant now = Instant.now();
+            int[] rows = tx.execute(s -> new int[]{
+                    professors.recountRatingsSince(found.since(), now)
+                            + (found.professors().isEmpty() ? 0 : professors.recountRatingsOf(found.professors(), now)),
+                    classes.recountDifficultySince(found.since(), now)
+                            + (found.classes().isEmpty() ? 0 : classes.recountDifficultyOf(found.classes(), now))
+            });
+            log.warn("Aggregates were not flushed at the last shutdown; recounted {} professors and {} classes "
+                    + "with reviews since {}", rows[0], rows[1], found.since());
+        }
+        writeMarker(Instant.now().minus(MARKER_MARGIN));
+    }
+
+    @Scheduled(fixedDelayString = "${reviews.aggregates.flush-ms:1000}")
+    public synchronized void flush() {
+        if (!enabled) return;
+        Instant swapped = Instant.now();
+        Map<UUID, long[]> profs = new HashMap<>();
+        Map<UUID, long[]> cls = new HashMap<>();
+        for (Stripe s : stripes) s.drainTo(profs, cls);
+        if (profs.isEmpty() && cls.isEmpty()) return;
+
+        try {
+            Timestamp now = Timestamp.from(swapped);
+            tx.executeWithoutResult(s -> write(profs, cls, now));
+        } catch (RuntimeException e) {
+            // keep the deltas for the next interval rather than lose them
+            profs.forEach((id, d) -> stripe(id).add(stripe(id).professors, id, d));
+            cls.forEach((id, d) -> stripe(id).add(stripe(id).classes, id, d));
+            log.warn("Aggregate flush of {} professors and {} classes failed; retrying next interval: {}",
+                    profs.size(), cls.size(), e.toString());
+            return;
+        }
+        writeMarker(swapped.minus(MARKER_MARGIN));
+
+        // batched JDBC skips the entity listeners; tell the search index and caches ourselves
+        profs.keySet().forEach(id -> professors.findSearchRowById(id).ifPresent(row -> events.publishEvent(
+                new CatalogChangedEvent(SearchDocument.of(Kind.PROFESSOR, row), CatalogChangedEvent.Change.UPDATED))));
+        cls.keySet().forEach(id -> classes.findSearchRowById(id).ifPresent(row -> events.publishEvent(
+                new CatalogChangedEvent(SearchDocument.of(Kind.CLASS, row), CatalogChangedEvent.Change.UPDATED))));
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        if (!enabled) return;
+        flush();
+        if (pending() == 0) Files.deleteIfExists(marker);
+    }
+
+    /**
+     * Entities with deltas not yet written.
+     */
+    public int pending() {
+        int n = 0;
+        for (Stripe s : stripes) n += s.size();
+        return n;
+    }
+
+    private static List<Object[]> professorArgs(Map<UUID, long[]> deltas, Timestamp now) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((id, d) -> args.add(new Object[]{
+                d[0], d[1], d[2], d[3], d[4], d[5], d[6], d[1], d[0], d[1], now, id}));
+        return args;
+    }
+
+    private static List<Object[]> classArgs(Map<UUID, long[]> deltas, Timestamp now) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((id, d) -> args.add(new Object[]{
+                d[0], d[1], d[2], d[3], d[4], d[5], d[6], d[7], d[2], d[1], d[2], now, id}));
+        return args;
+    }
+
+    // the delta is buffered before the commit gate is released, see exclusively()
+    private void afterCommit(Runnable r) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean held;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    commits.readLock().lock();
+                    held = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    r.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (held) commits.readLock().unlock();
+                }
+            });
+        } else {
+            r.run();
+        }
+    }
+
+    private Stripe stripe(UUID id) {
+        return stripes[(id.hashCode() & 0x7fffffff) % STRIPES];
+    }
+
+    // first line the instant, then one "PROFESSOR id" / "CLASS id" line per orphan
+    private Marker readMarker() {
+        try {
+            if (!Files.isRegularFile(marker)) return null;
+            List<String> lines = Files.readAllLines(marker, StandardCharsets.UTF_8);
+            var found = new Marker(Instant.parse(lines.get(0).trim()), new ArrayList<>(), new ArrayList<>());
+            for (String line : lines.subList(1, lines.size())) {
+                if (line.isBlank()) continue;
+                String[] parts = line.trim().split(" ");
+                UUID id = UUID.fromString(parts[1]);
+                (Kind.valueOf(parts[0]) == Kind.PROFESSOR ? found.professors() : found.classes()).add(id);
+            }
+            return found;
+        } catch (IOException | RuntimeException e) {
+            // unreadable means we cannot tell how much was lost: recount everything
+            log.warn("Unreadable aggregate marker {}: {}", marker, e.toString());
+            return new Marker(Instant.EPOCH, List.of(), List.of());
+        }
+    }
+
+    private void writeMarker(Instant since) {
+        synchronized (orphans) {
+            // an orphan older than the new marker had its delta written by this flush
+            orphans.values().removeIf(o -> o.at().isBefore(since));
+            var text = new StringBuilder(since.toString()).append('\n');
+            orphans.forEach((id, o) -> text.append(o.kind()).append(' ').append(id).append('\n'));
+            try {
+                Path dir = marker.toAbsolutePath().getParent();
+                Files.createDirectories(dir);
+                Path tmp = Files.createTempFile(dir, marker.getFileName().toString(), ".tmp");
+                Files.writeString(tmp, text, StandardCharsets.UTF_8);
+                Files.move(tmp, marker, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("Could not write aggregate marker {}", marker, e);
+            }
+        }
+    }
+
+    private record Marker(Instant since, List<UUID> professors, List<UUID> classes) {
+    }
+
+    private record Orphan(Kind kind, Instant at) {
+    }
+
+    private static final class Stripe {
+        private final Map<UUID, long[]> professors = new HashMap<>();
+        private final Map<UUID, long[]> classes = new HashMap<>();
+
+        synchronized void add(Map<UUID, long[]> into, UUID id, long[] delta) {
+            merge(into, id, delta);
+        }
+
+        synchronized void drainTo(Map<UUID, long[]> profs, Map<UUID, long[]> cls) {
+            profs.putAll(professors);
+            cls.putAll(classes);
+            professors.clear();
+            classes.clear();
+        }
+
+        synchronized int size() {
+            return professors.size() + classes.size();
+        }
+    }
+}
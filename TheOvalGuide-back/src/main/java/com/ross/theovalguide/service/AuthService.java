@@ -35,6 +35,7 @@ public class AuthService {
     private final SessionTokenRepository sessionTokenRepository;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final PasswordEncoder passwordEncoder;
+    private final SessionAuthenticator sessions;
 
     private final SecureRandom secureRandom = new SecureRandom();
 
@@ -53,6 +54,7 @@ public class AuthService {
         }
 
         sessionTokenRepository.deleteByUser(user);
+        sessions.evictUser(user.getId());
 
         String rawToken = generateToken();
         String tokenHash = hashToken(rawToken);
@@ -129,6 +131,7 @@ public class AuthService {
         userRepository.save(user);
 
         sessionTokenRepository.deleteByUser(user);
+        sessions.evictUser(user.getId());
 
         token.setUsed(true);
         token.setUsedAt(Instant.now());
@@ -164,7 +167,7 @@ public class AuthService {
         return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 
-    private String hashToken(String rawToken) {
+    static String hashToken(String rawToken) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
             byte[] hashed = digest.digest(rawToken.getBytes(StandardCharsets.UTF_8));
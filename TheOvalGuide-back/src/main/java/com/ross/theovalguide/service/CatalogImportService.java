@@ -0,0 +1,361 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.repo.ClassProfessorRepository;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.repo.SearchRow;
+import com.ross.theovalguide.service.page.PageReadModel;
+import com.ross.theovalguide.service.search.CatalogChangedEvent;
+import com.ross.theovalguide.service.search.SearchDocument;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import com.ross.theovalguide.util.ClassCodeUtil;
+import com.ross.theovalguide.util.ImportRecords;
+import com.ross.theovalguide.util.ImportRecords.Format;
+import com.ross.theovalguide.util.SlugUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Term catalog load: classes, professors and which professor teaches which class, from CSV or NDJSON
+ * ({@link ImportRecords}) with one row per class and instructor. Fields: {@code university},
+ * {@code department}, {@code class_code}, {@code class_title}, {@code instructor} (optional).
+ * <p>
+ * Classes are matched on their normalized code and professors on their name (titles stripped) within
+ * the university, against maps of the existing catalog loaded once; new professors get unique slugs from
+ * the in-memory set of taken slugs rather than one existence query per candidate. Inserts and changed
+ * class details go out as JDBC batches of catalog.import.batch-size rows, each batch one transaction, so
+ * memory grows with the number of distinct classes and professors, not with the file. Loading the same
+ * file twice changes nothing.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogImportService {
+
+    private static final String CLASS_INSERT_SQL = """
+            insert into classes (id, created_at, updated_at, code, code_normalized, title, department, university,
+              total_ratings, difficulty_sum, difficulty_count, difficulty_count_1, difficulty_count_2,
+              difficulty_count_3, difficulty_count_4, difficulty_count_5)
+            values (?, ?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0, 0)
+            on conflict do nothing
+            """;
+
+    // only rows whose details changed, so updated_at (and the search index) moves for those alone
+    private static final String CLASS_UPDATE_SQL = """
+            update classes set title = ?, department = ?, university = ?, updated_at = ?
+            where id = ? and (title <> ? or department <> ? or university <> ?)
+            """;
+
+    private static final String PROFESSOR_INSERT_SQL = """
+            insert into professors (id, created_at, updated_at, slug, name, department, university,
+              total_ratings, rating_sum, rating_count_1, rating_count_2, rating_count_3, rating_count_4, rating_count_5)
+            values (?, ?, ?, ?, ?, ?, ?, 0, 0, 0, 0, 0, 0, 0)
+            on conflict do nothing
+            """;
+
+    private static final String LINK_INSERT_SQL = """
+            insert into class_professors (id, created_at, updated_at, class_id, professor_id)
+            values (?, ?, ?, ?, ?)
+            on conflict do nothing
+            """;
+
+    private static final int LOGGED_SKIPS = 20;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ProfessorRepository professors;
+    private final CourseClassRepository classes;
+    private final ClassProfessorRepository classProfessors;
+    private final PageReadModel pages;
+    private final ApplicationEventPublisher events;
+
+    @Value("${catalog.import.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * @param classesUpdated existing classes whose title, department or university changed
+     * @param skipped rows not loaded, by reason
+     */
+    public record CatalogReport(long rows, long classesCreated, long classesUpdated, long professorsCreated,
+                                long linksCreated, Map<String, Long> skipped, double seconds, long rowsPerSecond,
+                                long peakHeapBytes) {
+    }
+
+    public CatalogReport importFile(Path file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importCatalog(in, Format.of(file));
+        }
+    }
+
+    public CatalogReport importCatalog(Reader in, Format format) throws IOException {
+        ImportRecords.resetPeakHeap();
+        long started = System.nanoTime();
+        Instant since = Instant.now();
+
+        var run = new Run();
+        for (Object[] row : classes.findCatalogRows()) {
+            run.classIds.put((String) row[0], (UUID) row[1]);
+            run.classDetails.put((UUID) row[1], List.of((String) row[2], (String) row[3], (String) row[4]));
+        }
+        classProfessors.findAllPairs().forEach(row -> run.links.add(List.of((UUID) row[0], (UUID) row[1])));
+        for (var row : professors.findAllNames()) {
+            if (row.getSlug() != null) run.takenSlugs.add(row.getSlug());
+            String key = professorKey(row.getUniversity(), row.getName());
+            if (key != null) run.professorIds.putIfAbsent(key, row.getId());
+        }
+        ImportRecords.read(in, format, run);
+        run.flush();
+
+        // the batches skipped the entity listeners: refresh the search index and ClassCodeResolver
+        professors.findSearchRowsUpdatedSince(since).forEach(row -> publishUpdated(Kind.PROFESSOR, row));
+        classes.findSearchRowsUpdatedSince(since).forEach(row -> publishUpdated(Kind.CLASS, row));
+        pages.clear();
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        var report = new CatalogReport(run.rows, run.classesCreated, run.classesUpdated, run.professorsCreated,
+                run.linksCreated, run.skipped, seconds, Math.round(run.rows / Math.max(seconds, 1e-3)),
+                ImportRecords.peakHeapBytes());
+        log.info("Loaded catalog of {} rows in {} s ({} rows/s, peak heap {} MB): {} classes created, {} updated, "
+                        + "{} professors created, {} links created; skipped {}",
+                report.rows(), String.format("%.1f", seconds), report.rowsPerSecond(), report.peakHeapBytes() >> 20,
+                report.classesCreated(), report.classesUpdated(), report.professorsCreated(), report.linksCreated(),
+                report.skipped());
+        return report;
+    }
+
+    // same professor = same university and same name once titles, case and punctuation are gone
+    private static String professorKey(String university, String name) {
+        String base = SlugUtil.toSlug(SlugUtil.stripTitlePrefix(name));
+        if (base == null || university == null) return null;
+        return university.trim().toLowerCase(Locale.ROOT) + "|" + base;
+    }
+
+    private void publishUpdated(Kind kind, SearchRow row) {
+        events.publishEvent(new CatalogChangedEvent(SearchDocument.of(kind, row), CatalogChangedEvent.Change.UPDATED));
+    }
+
+    /**
+     * State of one load: what exists (ids by normalized code and by professor key, class details, links,
+     * taken slugs), so only new or changed rows are sent, and the pending batch.
+     */
+    private final class Run implements ImportRecords.Sink {
+        final Map<String, UUID> classIds = new HashMap<>();
+        final Map<String, UUID> professorIds = new HashMap<>();
+        final Set<String> takenSlugs = new HashSet<>();
+        final Map<String, Integer> nextSuffix = new HashMap<>();
+        final Map<UUID, List<String>> classDetails = new HashMap<>();     // id -> [title, department, university]
+        final Set<List<UUID>> links = new HashSet<>();                   // [class id, professor id]
+        // ids generated here that lost an insert race to a concurrent writer -> the row's real id
+        final Map<UUID, UUID> replaced = new HashMap<>();
+
+        final List<Object[]> newClasses = new ArrayList<>();
+        final List<Object[]> changedClasses = new ArrayList<>();
+        final List<Object[]> newProfessors = new ArrayList<>();
+        final List<List<UUID>> newLinks = new ArrayList<>();
+        int pendingRows;
+
+        final Map<String, Long> skipped = new TreeMap<>();
+        long rows;
+        long classesCreated;
+        long classesUpdated;
+        long professorsCreated;
+        long linksCreated;
+
+        @Override
+        public void record(int line, Map<String, String> f) {
+            rows++;
+            String code = blankToNull(f.get("classcode"));
+            String norm = ClassCodeUtil.normalize(code);
+            String title = blankToNull(f.get("classtitle"));
+            String department = blankToNull(f.get("department"));
+            String university = blankToNull(f.get("university"));
+            String instructor = blankToNull(f.get("instructor"));
+            if (norm == null || title == null || department == null || university == null) {
+                skip(line, "missing class code, title, department or university");
+                return;
+            }
+            if (code.length() > 50 || title.length() > 150 || department.length() > 100 || university.length() > 100
+                    || (instructor != null && instructor.length() > 100)) {
+                skip(line, "value too long");
+                return;
+            }
+
+            UUID classId = classIds.get(norm);
+            var details = List.of(title, department, university);
+            if (classId == null) {
+                classId = UUID.randomUUID();
+                classIds.put(norm, classId);
+                newClasses.add(new Object[]{classId, code, norm, title, department, university});
+            } else if (!details.equals(classDetails.get(classId))) {
+                changedClasses.add(new Object[]{title, department, university, classId});
+            }
+            classDetails.put(classId, details);
+
+            String key = instructor == null ? null : professorKey(university, instructor);
+            if (key != null) {
+                UUID professorId = professorIds.get(key);
+                if (professorId == null) {
+                    professorId = UUID.randomUUID();
+                    professorIds.put(key, professorId);
+                    newProfessors.add(new Object[]{professorId, uniqueSlug(key.substring(key.indexOf('|') + 1)),
+                            instructor, department, university});
+                }
+                var link = List.of(classId, professorId);
+                if (links.add(link)) newLinks.add(link);
+            } else if (instructor != null) {
+                skip(line, "instructor ignored: no letters or digits");
+            }
+
+            if (++pendingRows >= batchSize) flush();
+        }
+
+        @Override
+        public void malformed(int line) {
+            rows++;
+            skip(line, "malformed json");
+        }
+
+        // the SlugService sequence (base, base-2, base-3, ...) checked against memory instead of the table
+        String uniqueSlug(String base) {
+            String slug = base;
+            int i = nextSuffix.getOrDefault(base, 2);
+            while (!takenSlugs.add(slug)) slug = base + "-" + i++;
+            nextSuffix.put(base, i);
+            return slug;
+        }
+
+        void skip(int line, String reason) {
+            long n = skipped.merge(reason, 1L, Long::sum);
+            if (n <= LOGGED_SKIPS) log.warn("Catalog line {}: {}", line, reason);
+        }
+
+        void flush() {
+            if (pendingRows == 0) return;
+            Timestamp now = Timestamp.from(Instant.now());
+            tx.executeWithoutResult(s -> {
+                int[] inserted = jdbc.batchUpdate(CLASS_INSERT_SQL, withTimestamps(newClasses, now));
+                List<UUID> conflicted = new ArrayList<>();
+                for (int i = 0; i < inserted.length; i++) {
+                    var row = newClasses.get(i);
+                    if (inserted[i] != 0) {
+                        classesCreated++;
+                        continue;
+                    }
+                    // created since the maps were loaded (e.g. by a review submission): it takes this file's details
+                    String norm = (String) row[2];
+                    classes.findIdByCodeNormalized(norm).ifPresent(id -> {
+                        replaced.put((UUID) row[0], id);
+                        classIds.put(norm, id);
+                        classDetails.put(id, classDetails.remove((UUID) row[0]));
+                        conflicted.add(id);
+                    });
+                }
+
+                inserted = jdbc.batchUpdate(PROFESSOR_INSERT_SQL, withTimestamps(newProfessors, now));
+                for (int i = 0; i < inserted.length; i++) {
+                    if (inserted[i] != 0) {
+                        professorsCreated++;
+                    } else {
+                        insertAfterSlugConflict(newProfessors.get(i), now);
+                    }
+                }
+
+                List<Object[]> updates = new ArrayList<>(changedClasses.size() + conflicted.size());
+                for (var c : changedClasses) {
+                    Object id = replaced.getOrDefault((UUID) c[3], (UUID) c[3]);
+                    updates.add(new Object[]{c[0], c[1], c[2], now, id, c[0], c[1], c[2]});
+                }
+                // last, so the latest details win; a no-op where a change above already set them
+                for (UUID id : conflicted) {
+                    var d = classDetails.get(id);
+                    updates.add(new Object[]{d.get(0), d.get(1), d.get(2), now, id, d.get(0), d.get(1), d.get(2)});
+                }
+                classesUpdated += sum(jdbc.batchUpdate(CLASS_UPDATE_SQL, updates));
+
+                List<Object[]> links = new ArrayList<>(newLinks.size());
+                for (var link : newLinks) {
+                    links.add(new Object[]{UUID.randomUUID(), now, now,
+                            replaced.getOrDefault(link.get(0), link.get(0)),
+                            replaced.getOrDefault(link.get(1), link.get(1))});
+                }
+                linksCreated += sum(jdbc.batchUpdate(LINK_INSERT_SQL, links));
+            });
+            newClasses.clear();
+            changedClasses.clear();
+            newProfessors.clear();
+            newLinks.clear();
+            pendingRows = 0;
+        }
+
+        /**
+         * A professor whose slug was taken since the maps were loaded. Its owner is this professor only if it
+         * has the same key (created meanwhile, e.g. by a review submission); any other owner is a different
+         * person, so the row takes the next free slug instead.
+         */
+        void insertAfterSlugConflict(Object[] row, Timestamp now) {
+            UUID id = (UUID) row[0];
+            String key = professorKey((String) row[4], (String) row[2]);
+            String slug = (String) row[1];
+            while (true) {
+                Professor owner = professors.findBySlugIgnoreCase(slug).orElse(null);
+                if (owner != null && key.equals(professorKey(owner.getUniversity(), owner.getName()))) {
+                    replaced.put(id, owner.getId());
+                    professorIds.put(key, owner.getId());
+                    return;
+                }
+                slug = uniqueSlug(key.substring(key.indexOf('|') + 1));
+                if (jdbc.update(PROFESSOR_INSERT_SQL, id, now, now, slug, row[2], row[3], row[4]) != 0) {
+                    professorsCreated++;
+                    return;
+                }
+            }
+        }
+    }
+
+    // id first, then created_at and updated_at, then the row's own values
+    private static List<Object[]> withTimestamps(List<Object[]> rows, Timestamp now) {
+        List<Object[]> args = new ArrayList<>(rows.size());
+        for (var row : rows) {
+            Object[] a = new Object[row.length + 2];
+            a[0] = row[0];
+            a[1] = now;
+            a[2] = now;
+            System.arraycopy(row, 1, a, 3, row.length - 1);
+            args.add(a);
+        }
+        return args;
+    }
+
+    private static long sum(int[] counts) {
+        long n = 0;
+        for (int c : counts) if (c > 0) n += c;
+        return n;
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
+}
@@ -0,0 +1,96 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.service.search.CatalogChangedEvent;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import com.ross.theovalguide.util.ClassCodeUtil;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps any spelling of a class code ("cs 2201", "CS2201") to the class id through its normalized form.
+ * <p>
+ * Codes are looked up in an in-process map first; a miss costs one probe of the unique
+ * {@code code_normalized} index, after which the code is cached. Writes keep the map current
+ * through {@link CatalogChangedEvent}, including renames and deletes.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClassCodeResolver {
+
+    private final CourseClassRepository classes;
+
+    private final Map<String, UUID> ids = new ConcurrentHashMap<>();    // normalized code -> id
+    private final Map<UUID, String> codes = new ConcurrentHashMap<>();  // id -> normalized code
+
+    public Optional<UUID> resolve(String code) {
+        String key = ClassCodeUtil.normalize(code);
+        if (key == null) return Optional.empty();
+        UUID id = ids.get(key);
+        if (id != null) return Optional.of(id);
+        var found = classes.findIdByCodeNormalized(key);
+        found.ifPresent(v -> put(key, v));
+        return found;
+    }
+
+    /**
+     * The class for any spelling of {@code code}: a hash lookup plus a primary-key fetch when the code is known.
+     */
+    public Optional<CourseClass> find(String code) {
+        String key = ClassCodeUtil.normalize(code);
+        if (key == null) return Optional.empty();
+        UUID id = ids.get(key);
+        if (id != null) {
+            var hit = classes.findById(id);
+            if (hit.isPresent()) return hit;
+            evict(id); // deleted by a write this instance did not see
+        }
+        var found = classes.findByCodeNormalized(key);
+        found.ifPresent(c -> put(key, c.getId()));
+        return found;
+    }
+
+    /**
+     * Seeds the map in bulk at startup so the first request for each code is already a hit.
+     */
+    public void load(Iterable<CourseClassRepository.CodeRow> rows) {
+        for (var row : rows) {
+            put(row.getCode(), row.getId());
+        }
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        var doc = event.document();
+        if (doc.kind() != Kind.CLASS) return;
+        String key = ClassCodeUtil.normalize(doc.key());
+        if (event.removed() || key == null) {
+            evict(doc.id());
+        } else {
+            put(key, doc.id());
+        }
+    }
+
+    // both maps change together so a renamed class never answers to its old code
+    private synchronized void put(String key, UUID id) {
+        String old = codes.put(id, key);
+        if (old != null && !old.equals(key)) ids.remove(old, id);
+        ids.put(key, id);
+    }
+
+    private synchronized void evict(UUID id) {
+        String old = codes.remove(id);
+        if (old != null) ids.remove(old, id);
+    }
+}
@@ -1,10 +1,12 @@
 package com.ross.theovalguide.service;
 
 import com.ross.theovalguide.DTOS.*;
-import com.ross.theovalguide.model.Advice;
-import com.ross.theovalguide.model.Note;
+import com.ross.theovalguide.model.CourseClass;
 import com.ross.theovalguide.repo.*;
+import com.ross.theovalguide.service.page.PageModel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,54 +21,56 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ClassQueryService {
 
-    private final CourseClassRepository classes;
+    private final ClassCodeResolver classCodes;
     private final ReviewRepository reviews;
-    private final ReviewTagRepository reviewTags;
+    private final TagCountRepository tagCounts;
     private final ClassProfessorRepository classProfs;
     private final AdviceRepository adviceRepo;
     private final NoteRepository noteRepo;
+    private final ReviewFeedService feeds;
+
+    @Value("${tags.top-limit:10}")
+    private int topTagLimit;
 
     /**
      * ENTRYPOINT used by controller → lookup for code variants
+     * <p>
+     * The whole page is assembled in a fixed number of statements, whatever the amount of advice or notes:
+     * class lookup, difficulty buckets, professors, top tags, advice with authors, notes with their count.
      */
     @Transactional(readOnly = true)
     public ClassResponse getClassByCode(String code) {
-        // First try exact case-insensitive
-        var opt = classes.findByCodeIgnoreCase(code);
-
-        // then try normalized remove spaces both sides → handles CS2201 vs CS 2201
-        if (opt.isEmpty()) {
-            opt = classes.findByCodeNormalized(code);
-        }
-
-        // then if the incoming code is smushed (letters+digits), add a space: CS2201 -> CS 2201
-        if (opt.isEmpty()) {
-            String spaced = code.replaceAll("(?i)^([a-z]+)\\s*([0-9].*)$", "$1 $2");
-            if (!spaced.equals(code)) {
-                opt = classes.findByCodeIgnoreCase(spaced);
-            }
-        }
+        return loadClassPage(code).body();
+    }
 
-        var entity = opt.orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        return buildClassResponse(entity.getId());
+    /**
+     * The class page plus the professors it lists, for PageReadModel.
+     */
+    @Transactional(readOnly = true)
+    public PageModel<ClassResponse> loadClassPage(String code) {
+        // case- and space-insensitive (CS2201 vs CS 2201): hash lookup of the normalized code, then by id
+        var entity = classCodes.find(code)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        var page = buildClassResponse(entity);
+        var professorIds = page.professors().stream()
+                .map(p -> UUID.fromString(p.id()))
+                .collect(Collectors.toSet());
+        return new PageModel<>(entity.getId(), page, professorIds);
     }
 
     /**
      * Helper that runs inside the active transaction started by the entrypoint.
      */
-    private ClassResponse buildClassResponse(UUID id) {
-        var c = classes.findById(id).orElseThrow();
-
-        // Difficulty buckets (5..1)
-        Map<Integer, Long> bucketMap = new HashMap<>();
-        reviews.difficultyBucketsForClass(id).forEach(row -> {
-            Integer diff = (Integer) row[0];
-            Long cnt = (Long) row[1];
-            if (diff != null) bucketMap.put(diff, cnt);
-        });
+    private ClassResponse buildClassResponse(CourseClass c) {
+        UUID id = c.getId();
+
+        // Difficulty buckets (5..1), stored on the row and kept current by ReviewService
+        Integer[] counts = {c.getDifficultyCount1(), c.getDifficultyCount2(), c.getDifficultyCount3(),
+                c.getDifficultyCount4(), c.getDifficultyCount5()};
         List<LabelCountDto> difficultyBuckets = new ArrayList<>();
         for (int i = 5; i >= 1; i--) {
-            difficultyBuckets.add(new LabelCountDto(String.valueOf(i), bucketMap.getOrDefault(i, 0L)));
+            Integer n = counts[i - 1];
+            difficultyBuckets.add(new LabelCountDto(String.valueOf(i), n == null ? 0L : n));
         }
 
         // Professors for this class
@@ -79,24 +83,25 @@ public class ClassQueryService {
                 ))
                 .collect(Collectors.toList());
 
-        // Tags (top)
-        var tags = reviewTags.topTagsForClass(id).stream()
+        // Tags (top), read off the maintained per-class counters
+        var tags = tagCounts.topTags(id, Limit.of(topTagLimit)).stream()
                 .map(row -> new TagDto(row[0].toString(), (String) row[1]))
                 .collect(Collectors.toList());
 
-        // Advice (no upvotes column in schema -> return 0)
-        var advices = adviceRepo.findTop20ByCourseClassIdOrderByCreatedAtDesc(id).stream()
+        // Advice (no upvotes column in schema -> return 0); author comes with the row
+        var advices = adviceRepo.recentForClass(id, Limit.of(20)).stream()
                 .map(this::toAdvice)
                 .collect(Collectors.toList());
 
-        // Notes & preview (title derived from file name)
-        var notes = noteRepo.findTop20ByCourseClassIdOrderByCreatedAtDesc(id).stream()
-                .map(Note::getFileUrl)
+        // Notes & preview (title derived from file name), one list serves both
+        var recentNotes = noteRepo.recentForClass(id, Limit.of(20));
+        var notes = recentNotes.stream()
+                .map(NoteRepository.NoteRow::getFileUrl)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
 
-        int noteCount = (int) noteRepo.countByCourseClassId(id);
-        var samples = noteRepo.findTop20ByCourseClassIdOrderByCreatedAtDesc(id).stream()
+        int noteCount = recentNotes.isEmpty() ? 0 : recentNotes.get(0).getTotal().intValue();
+        var samples = recentNotes.stream()
                 .limit(5)
                 .map(n -> new NotesPreviewDto.Sample(
                         n.getId().toString(),
@@ -104,6 +109,10 @@ public class ClassQueryService {
                 ))
                 .collect(Collectors.toList());
 
+        // First page of the review feed; the rest via GET /api/classes/{code}/reviews
+        var firstPage = feeds.toPage(
+                reviews.feedForClass(id, Limit.of(ReviewFeedService.FIRST_PAGE + 1)), ReviewFeedService.FIRST_PAGE);
+
         return new ClassResponse(
                 c.getId().toString(),
                 c.getCode(),
@@ -119,12 +128,14 @@ public class ClassQueryService {
                 null,                           // summary (later if you like)
                 advices,
                 notes,
-                new NotesPreviewDto(noteCount, samples)
+                new NotesPreviewDto(noteCount, samples),
+                firstPage.items(),
+                firstPage.nextCursor()
         );
     }
 
-    private ClassResponse.AdviceDto toAdvice(Advice a) {
-        String author = a.getUser() != null ? a.getUser().getUsername() : "anonymous";
+    private ClassResponse.AdviceDto toAdvice(AdviceRepository.AdviceRow a) {
+        String author = a.getAuthor() != null ? a.getAuthor() : "anonymous";
         String date = DateTimeFormatter.ISO_LOCAL_DATE
                 .format(a.getCreatedAt().atZone(java.time.ZoneOffset.UTC));
         return new ClassResponse.AdviceDto(
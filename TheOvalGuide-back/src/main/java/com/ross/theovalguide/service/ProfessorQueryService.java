@@ -2,13 +2,17 @@ package com.ross.theovalguide.service;
 
 import com.ross.theovalguide.DTOS.LabelCountDto;
 import com.ross.theovalguide.DTOS.ProfessorResponse;
-import com.ross.theovalguide.DTOS.ReviewItemDto;
 import com.ross.theovalguide.DTOS.TagDto;
+import com.ross.theovalguide.DTOS.review.ReviewPage;
+import com.ross.theovalguide.model.CourseClass;
 import com.ross.theovalguide.model.Review;
 import com.ross.theovalguide.repo.ProfessorRepository;
 import com.ross.theovalguide.repo.ReviewRepository;
-import com.ross.theovalguide.repo.ReviewTagRepository;
+import com.ross.theovalguide.repo.TagCountRepository;
+import com.ross.theovalguide.service.page.PageModel;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,16 +27,28 @@ public class ProfessorQueryService {
 
     private final ProfessorRepository professors;
     private final ReviewRepository reviews;
-    private final ReviewTagRepository reviewTags;
+    private final TagCountRepository tagCounts;
+    private final ReviewFeedService feeds;
+
+    @Value("${tags.top-limit:10}")
+    private int topTagLimit;
 
     /**
      * ENTRYPOINT used by controller → must be transactional
      */
     @Transactional(readOnly = true)
     public ProfessorResponse getProfessorBySlug(String slug) {
+        return loadProfessorPage(slug).body();
+    }
+
+    /**
+     * The professor page plus the classes its reviews mention, for PageReadModel.
+     */
+    @Transactional(readOnly = true)
+    public PageModel<ProfessorResponse> loadProfessorPage(String slug) {
         var p = professors.findBySlugIgnoreCase(slug)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
-        return getProfessor(p.getId());
+        return buildProfessorPage(p.getId());
     }
 
     /**
@@ -40,40 +56,41 @@ public class ProfessorQueryService {
      */
     @Transactional(readOnly = true)
     public ProfessorResponse getProfessor(UUID id) {
-        return buildProfessorResponse(id);
+        return buildProfessorPage(id).body();
     }
 
     /**
      * Helper that runs inside the active transaction started by the entrypoint.
      */
-    private ProfessorResponse buildProfessorResponse(UUID id) {
+    private PageModel<ProfessorResponse> buildProfessorPage(UUID id) {
         var p = professors.findById(id).orElseThrow();
 
-        // Buckets 5..1
-        Map<Integer, Long> bucketMap = new HashMap<>();
-        reviews.ratingBucketsForProfessor(id).forEach(row -> {
-            Integer rating = (Integer) row[0];
-            Long cnt = (Long) row[1];
-            bucketMap.put(rating, cnt);
-        });
+        // Buckets 5..1, stored on the row and kept current by ReviewService
+        Integer[] counts = {p.getRatingCount1(), p.getRatingCount2(), p.getRatingCount3(),
+                p.getRatingCount4(), p.getRatingCount5()};
         List<LabelCountDto> buckets = new ArrayList<>();
         for (int i = 5; i >= 1; i--) {
-            buckets.add(new LabelCountDto(String.valueOf(i), bucketMap.getOrDefault(i, 0L)));
+            Integer n = counts[i - 1];
+            buckets.add(new LabelCountDto(String.valueOf(i), n == null ? 0L : n));
         }
 
-        // Top tags
-        List<TagDto> tags = reviewTags.topTagsForProfessor(id).stream()
+        // Top tags, read off the maintained per-professor counters
+        List<TagDto> tags = tagCounts.topTags(id, Limit.of(topTagLimit)).stream()
                 .map(row -> new TagDto(row[0].toString(), (String) row[1]))
                 .collect(Collectors.toList());
 
-        // Latest reviews with courseClass fetch-joined (prevents LazyInitializationException)
-        List<Review> reviewList = reviews.findByProfessorIdWithClass(id);
+        // First page of the review feed (class and author fetch-joined, tags in one query); the rest via
+        // GET /api/professors/{slug}/reviews
+        List<Review> reviewList = reviews.feedForProfessor(id, Limit.of(ReviewFeedService.FIRST_PAGE + 1));
+        ReviewPage firstPage = feeds.toPage(reviewList, ReviewFeedService.FIRST_PAGE);
 
-        List<ReviewItemDto> reviewDtos = reviewList.stream()
-                .map(this::toReviewItem)
-                .collect(Collectors.toList());
+        Set<UUID> classIds = reviewList.stream()
+                .map(Review::getCourseClass)
+                .filter(Objects::nonNull)
+                .map(CourseClass::getId)
+                .collect(Collectors.toSet());
 
-        return new ProfessorResponse(
+        return new PageModel<>(id, new ProfessorResponse(
                 p.getId().toString(),
                 p.getName(),
                 p.getDepartment(),
@@ -83,24 +100,8 @@ public class ProfessorQueryService {
                 buckets,
                 tags,
                 null,   // summary optional, later
-                reviewDtos
-        );
-    }
-
-    private ReviewItemDto toReviewItem(Review r) {
-        String courseCode = r.getCourseClass() == null ? null : r.getCourseClass().getCode();
-        String author = r.getUser() != null ? r.getUser().getUsername() : "anonymous";
-        var date = r.getCreatedAt();
-        var tagLabels = reviewTags.labelsForReview(r.getId());
-
-        return new ReviewItemDto(
-                r.getId().toString(),
-                author,
-                courseCode,
-                date,
-                r.getRating(),
-                r.getComment(),
-                tagLabels
-        );
+                firstPage.items(),
+                firstPage.nextCursor()
+        ), classIds);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package com.ross.theovalguide.service;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a review feed: createdAt and id of the last review served. Feeds are ordered
+ * newest first with id descending as the tie-break, so the next page is everything strictly below this pair.
+ * <p>
+ * Sent to clients as an opaque URL-safe token.
+ */
+public record ReviewCursor(Instant createdAt, UUID id) {
+
+    private static final int BYTES = Long.BYTES + Integer.BYTES + 2 * Long.BYTES;
+
+    public String encode() {
+        ByteBuffer buf = ByteBuffer.allocate(BYTES)
+                .putLong(createdAt.getEpochSecond())
+                .putInt(createdAt.getNano())
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+    }
+
+    /**
+     * The cursor, or {@code null} for a blank token (first page).
+     *
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static ReviewCursor decode(String token) {
+        if (token == null || token.isBlank()) return null;
+        byte[] raw = Base64.getUrlDecoder().decode(token.trim());
+        if (raw.length != BYTES) throw new IllegalArgumentException("malformed cursor");
+        ByteBuffer buf = ByteBuffer.wrap(raw);
+        long seconds = buf.getLong();
+        int nanos = buf.getInt();
+        // Instant.ofEpochSecond would throw DateTimeException past its range
+        if (seconds < Instant.MIN.getEpochSecond() || seconds > Instant.MAX.getEpochSecond()
+                || nanos < 0 || nanos > 999_999_999) {
+            throw new IllegalArgumentException("malformed cursor");
+        }
+        return new ReviewCursor(Instant.ofEpochSecond(seconds, nanos), new UUID(buf.getLong(), buf.getLong()));
+    }
+}
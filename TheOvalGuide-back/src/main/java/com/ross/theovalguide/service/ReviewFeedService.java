@@ -0,0 +1,120 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.DTOS.ReviewItemDto;
+import com.ross.theovalguide.DTOS.review.ReviewPage;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.repo.ReviewRepository;
+import com.ross.theovalguide.repo.ReviewTagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Newest-first review feeds of a professor or class, paged by keyset on (createdAt, id) so every page
+ * costs the same however deep the client has scrolled. Profile pages embed the first page.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReviewFeedService {
+
+    /**
+     * Reviews embedded in ProfessorResponse / ClassResponse; the rest come from the feed endpoints.
+     */
+    public static final int FIRST_PAGE = 20;
+    private static final int MAX_PAGE = 50;
+
+    private final ReviewRepository reviews;
+    private final ReviewTagRepository reviewTags;
+    private final ProfessorRepository professors;
+    private final ClassCodeResolver classCodes;
+
+    @Transactional(readOnly = true)
+    public ReviewPage professorFeed(String slug, String cursor, int limit) {
+        var after = decode(cursor);
+        int cap = clamp(limit);
+        var p = professors.findBySlugIgnoreCase(slug)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        var rows = after == null
+                ? reviews.feedForProfessor(p.getId(), Limit.of(cap + 1))
+                : reviews.feedForProfessorAfter(p.getId(), after.createdAt(), after.id(), Limit.of(cap + 1));
+        return toPage(rows, cap);
+    }
+
+    @Transactional(readOnly = true)
+    public ReviewPage classFeed(String code, String cursor, int limit) {
+        var after = decode(cursor);
+        int cap = clamp(limit);
+        UUID classId = classCodes.resolve(code)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        var rows = after == null
+                ? reviews.feedForClass(classId, Limit.of(cap + 1))
+                : reviews.feedForClassAfter(classId, after.createdAt(), after.id(), Limit.of(cap + 1));
+        return toPage(rows, cap);
+    }
+
+    /**
+     * Page of the first {@code cap} of {@code rows}, which were fetched with one extra row to tell
+     * whether another page exists. Tags of all items come from one query.
+     */
+    public ReviewPage toPage(List<Review> rows, int cap) {
+        boolean more = rows.size() > cap;
+        List<Review> items = more ? rows.subList(0, cap) : rows;
+        Map<UUID, List<String>> labels = labelsByReview(items);
+
+        var dtos = items.stream()
+                .map(r -> toReviewItem(r, labels.getOrDefault(r.getId(), List.of())))
+                .collect(Collectors.toList());
+
+        Review last = items.isEmpty() ? null : items.get(items.size() - 1);
+        String next = more ? new ReviewCursor(last.getCreatedAt(), last.getId()).encode() : null;
+        return new ReviewPage(dtos, next);
+    }
+
+    private Map<UUID, List<String>> labelsByReview(List<Review> reviewList) {
+        if (reviewList.isEmpty()) return Map.of();
+        var ids = reviewList.stream().map(Review::getId).collect(Collectors.toList());
+        Map<UUID, List<String>> labels = new HashMap<>();
+        reviewTags.labelsForReviews(ids).forEach(row ->
+                labels.computeIfAbsent((UUID) row[0], k -> new ArrayList<>()).add((String) row[1]));
+        return labels;
+    }
+
+    private ReviewItemDto toReviewItem(Review r, List<String> tagLabels) {
+        String courseCode = r.getCourseClass() == null ? null : r.getCourseClass().getCode();
+        String author = r.getUser() != null ? r.getUser().getUsername() : "anonymous";
+        var date = r.getCreatedAt();
+
+        return new ReviewItemDto(
+                r.getId().toString(),
+                author,
+                courseCode,
+                date,
+                r.getRating(),
+                r.getComment(),
+                tagLabels
+        );
+    }
+
+    private static ReviewCursor decode(String cursor) {
+        try {
+            return ReviewCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+        }
+    }
+
+    private static int clamp(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE));
+    }
+}
@@ -0,0 +1,228 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.repo.SearchRow;
+import com.ross.theovalguide.service.page.PageReadModel;
+import com.ross.theovalguide.service.search.CatalogChangedEvent;
+import com.ross.theovalguide.service.search.SearchDocument;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import com.ross.theovalguide.util.ImportRecords;
+import com.ross.theovalguide.util.ImportRecords.Format;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Bulk import of legacy reviews from CSV or NDJSON ({@link ImportRecords}), streamed so the file size does
+ * not matter. Columns / fields: {@code professor_slug}, {@code class_code}, {@code rating},
+ * {@code difficulty}, {@code comment}, {@code created_at} (ISO-8601, defaults to now).
+ * <p>
+ * Slugs and class codes are resolved in memory (a slug map loaded once, {@link ClassCodeResolver} for
+ * codes). Rows go to the database as JDBC batches of reviews.import.batch-size, each batch its own
+ * transaction, so neither the heap nor a single transaction grows with the file. The aggregates of every
+ * professor and class that received reviews are then recomputed with one set-based UPDATE per table;
+ * with write-behind enabled that runs under {@link AggregateWriteBehind#exclusively}, so live review
+ * commits wait for it. Without write-behind, live reviews increment the same rows in their own transaction,
+ * so the recount first locks them ({@code SELECT ... FOR UPDATE}, in id order): a review that got there
+ * first is committed before the recount reads, one that comes later waits and adds on top.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReviewImportService {
+
+    private static final String INSERT_SQL = """
+            insert into reviews (id, created_at, updated_at, professor_id, class_id, user_id, rating, difficulty, comment)
+            values (?, ?, ?, ?, ?, null, ?, ?, ?)
+            """;
+    private static final int LOGGED_SKIPS = 20;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final ProfessorRepository professors;
+    private final CourseClassRepository classes;
+    private final ClassCodeResolver classCodes;
+    private final AggregateWriteBehind writeBehind;
+    private final PageReadModel pages;
+    private final ApplicationEventPublisher events;
+
+    @Value("${reviews.import.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * @param skipped rows not imported, by reason
+     * @param peakHeapBytes sum of the heap pools' peak usage during the import, an upper bound
+     */
+    public record ImportReport(long rows, long imported, Map<String, Long> skipped, double seconds,
+                               long rowsPerSecond, long peakHeapBytes) {
+    }
+
+    public ImportReport importFile(Path file) throws IOException {
+        try (Reader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importReviews(in, Format.of(file));
+        }
+    }
+
+    public ImportReport importReviews(Reader in, Format format) throws IOException {
+        ImportRecords.resetPeakHeap();
+        long started = System.nanoTime();
+        Instant since = Instant.now();
+
+        Map<String, UUID> slugs = new HashMap<>();
+        professors.findAllSlugs().forEach(row -> slugs.put(row.getSlug(), row.getId()));
+        Set<String> unknownCodes = new HashSet<>();
+
+        var run = new Run(slugs, unknownCodes);
+        ImportRecords.read(in, format, run);
+        run.flush();
+
+        // one set-based UPDATE per table for everything the import touched. Absolute totals from reviews, so
+        // with write-behind on no live review's delta may be buffered or committing meanwhile, and without it
+        // the rows are locked first so a live increment cannot fall between the count and the write
+        Instant now = Instant.now();
+        int[] recounted = writeBehind.exclusively(() -> tx.execute(s -> {
+            professors.lockReviewedSince(since);
+            classes.lockReviewedSince(since);
+            return new int[]{
+                    professors.recountRatingsSince(since, now),
+                    classes.recountDifficultySince(since, now)
+            };
+        }));
+        // the batches skipped the entity listeners
+        professors.findSearchRowsUpdatedSince(since).forEach(row -> publishUpdated(Kind.PROFESSOR, row));
+        classes.findSearchRowsUpdatedSince(since).forEach(row -> publishUpdated(Kind.CLASS, row));
+        pages.clear();
+
+        double seconds = (System.nanoTime() - started) / 1e9;
+        long peak = ImportRecords.peakHeapBytes();
+        var report = new ImportReport(run.rows, run.imported, run.skipped, seconds,
+                Math.round(run.rows / Math.max(seconds, 1e-3)), peak);
+        log.info("Imported {} of {} reviews in {} s ({} rows/s, peak heap {} MB); recounted {} professors and {} classes; skipped {}",
+                report.imported(), report.rows(), String.format("%.1f", seconds), report.rowsPerSecond(),
+                peak >> 20, recounted[0], recounted[1], report.skipped());
+        return report;
+    }
+
+    private void publishUpdated(Kind kind, SearchRow row) {
+        events.publishEvent(new CatalogChangedEvent(SearchDocument.of(kind, row), CatalogChangedEvent.Change.UPDATED));
+    }
+
+    /**
+     * State of one import: counters, the pending batch and the lookup maps.
+     */
+    private final class Run implements ImportRecords.Sink {
+        final Map<String, UUID> slugs;
+        final Set<String> unknownCodes;
+        final List<Object[]> batch = new ArrayList<>(batchSize);
+        final Map<String, Long> skipped = new TreeMap<>();
+        long rows;
+        long imported;
+
+        Run(Map<String, UUID> slugs, Set<String> unknownCodes) {
+            this.slugs = slugs;
+            this.unknownCodes = unknownCodes;
+        }
+
+        @Override
+        public void record(int line, Map<String, String> f) {
+            rows++;
+            String slug = blankToNull(f.get("professorslug"));
+            String code = blankToNull(f.get("classcode"));
+            if (slug == null && code == null) {
+                skip(line, "no professor or class");
+                return;
+            }
+            UUID professorId = null;
+            if (slug != null && (professorId = slugs.get(slug.toLowerCase(Locale.ROOT))) == null) {
+                skip(line, "unknown professor");
+                return;
+            }
+            UUID classId = null;
+            if (code != null) {
+                classId = unknownCodes.contains(code) ? null : classCodes.resolve(code).orElse(null);
+                if (classId == null) {
+                    unknownCodes.add(code);
+                    skip(line, "unknown class");
+                    return;
+                }
+            }
+            Integer rating = score(f.get("rating"));
+            if (rating == null) {
+                skip(line, "rating not 1..5");
+                return;
+            }
+            String difficultyText = blankToNull(f.get("difficulty"));
+            Integer difficulty = difficultyText == null ? null : score(difficultyText);
+            if (difficultyText != null && difficulty == null) {
+                skip(line, "difficulty not 1..5");
+                return;
+            }
+            Instant createdAt;
+            try {
+                String at = blankToNull(f.get("createdat"));
+                createdAt = at == null ? Instant.now() : Instant.parse(at);
+            } catch (RuntimeException e) {
+                skip(line, "bad created_at");
+                return;
+            }
+
+            Timestamp now = Timestamp.from(Instant.now());
+            batch.add(new Object[]{UUID.randomUUID(), Timestamp.from(createdAt), now, professorId, classId,
+                    rating, difficulty, blankToNull(f.get("comment"))});
+            if (batch.size() >= batchSize) flush();
+        }
+
+        @Override
+        public void malformed(int line) {
+            rows++;
+            skip(line, "malformed json");
+        }
+
+        void skip(int line, String reason) {
+            long n = skipped.merge(reason, 1L, Long::sum);
+            if (n <= LOGGED_SKIPS) log.warn("Import line {}: {}", line, reason);
+        }
+
+        void flush() {
+            if (batch.isEmpty()) return;
+            tx.executeWithoutResult(s -> jdbc.batchUpdate(INSERT_SQL, batch));
+            imported += batch.size();
+            batch.clear();
+        }
+    }
+
+    private static Integer score(String text) {
+        try {
+            int v = Integer.parseInt(text.trim());
+            return v >= 1 && v <= 5 ? v : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String blankToNull(String s) {
+        return s == null || s.isBlank() ? null : s.trim();
+    }
+}
@@ -1,17 +1,36 @@
 package com.ross.theovalguide.service;
 
-import com.ross.theovalguide.model.CourseClass;
-import com.ross.theovalguide.model.Professor;
 import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.model.ReviewTag;
 import com.ross.theovalguide.repo.CourseClassRepository;
 import com.ross.theovalguide.repo.ProfessorRepository;
 import com.ross.theovalguide.repo.ReviewRepository;
+import com.ross.theovalguide.repo.ReviewTagRepository;
+import com.ross.theovalguide.repo.SearchRow;
+import com.ross.theovalguide.repo.TagCountRepository;
+import com.ross.theovalguide.repo.TagRepository;
+import com.ross.theovalguide.service.search.CatalogChangedEvent;
+import com.ross.theovalguide.service.search.SearchDocument;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
@@ -20,35 +39,233 @@ public class ReviewService {
     private final ReviewRepository reviews;
     private final ProfessorRepository professors;
     private final CourseClassRepository classes;
+    private final ReviewTagRepository reviewTags;
+    private final TagRepository tags;
+    private final TagCountRepository tagCounts;
+    private final ApplicationEventPublisher events;
+    private final AggregateWriteBehind writeBehind;
 
     /* CRUD + Aggregates */
 
+    /**
+     * Saves the review and moves the running sums, counts and histograms of its professor and class by the
+     * difference, with one atomic UPDATE per entity: the cost does not depend on how many reviews they already
+     * have, and concurrent reviews cannot overwrite each other's increments. With write-behind enabled the
+     * difference is handed to {@link AggregateWriteBehind} instead.
+     */
     @Transactional
     public Review createOrUpdate(Review review) {
+        var before = review.getId() == null ? null : reviews.findStoredById(review.getId()).orElse(null);
         Review saved = reviews.save(review);
-        recalcAggregates(saved.getProfessor(), saved.getCourseClass());
+
+        var touched = new Touched();
+        if (before != null) {
+            // crash recovery cannot find the old professor or class through this review any more
+            if (!Objects.equals(before.getProfessorId(), professorId(saved)) && before.getProfessorId() != null) {
+                writeBehind.orphaned(Kind.PROFESSOR, before.getProfessorId());
+            }
+            if (!Objects.equals(before.getClassId(), classId(saved)) && before.getClassId() != null) {
+                writeBehind.orphaned(Kind.CLASS, before.getClassId());
+            }
+            applyAggregates(before.getProfessorId(), before.getClassId(), before.getRating(), before.getDifficulty(), -1, touched);
+        }
+        applyAggregates(professorId(saved), classId(saved), saved.getRating(), saved.getDifficulty(), 1, touched);
+        publishUpdated(touched);
+
+        if (before != null) {
+            // a review moved to another professor or class takes its tag counts along
+            var from = new HashSet<UUID>();
+            var to = new HashSet<UUID>();
+            moved(before.getProfessorId(), professorId(saved), from, to);
+            moved(before.getClassId(), classId(saved), from, to);
+            if (!from.isEmpty() || !to.isEmpty()) {
+                var tagIds = reviewTags.tagIdsForReview(saved.getId());
+                countTags(from, tagIds, -1);
+                countTags(to, tagIds, 1);
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * {@link #createOrUpdate(Review)} plus {@link #addTags} in one transaction, for a review submitted
+     * with tags (ids from {@link TagResolver}).
+     */
+    @Transactional
+    public Review createOrUpdate(Review review, Collection<UUID> tagIds) {
+        boolean created = review.getId() == null;
+        Review saved = createOrUpdate(review);
+        attachTags(saved, tagIds, created);
         return saved;
     }
 
-    private void recalcAggregates(Professor professor, CourseClass courseClass) {
-        if (professor != null) {
-            Double avg = reviews.avgRatingForProfessor(professor.getId());
-            long cnt = reviews.countForProfessor(professor.getId());
-            professor.setOverallRating(
-                    avg == null ? null : BigDecimal.valueOf(avg).setScale(2, RoundingMode.HALF_UP)
-            );
-            professor.setTotalRatings((int) cnt);
-            professors.save(professor);
+    /**
+     * Creates a batch of new reviews in one transaction (group commit, see {@link ReviewSubmitter}). All reviews and
+     * review tags are persisted before anything else runs, so the flush sends one JDBC batch per table
+     * (hibernate.order_inserts). The aggregate and tag-count deltas are then summed over the batch: one UPDATE per
+     * touched professor and class (or one merged delta for {@link AggregateWriteBehind}), one tag-count UPDATE per
+     * set of subjects that gained the same tags by the same amount, and each touched row announced once.
+     */
+    @Transactional
+    public List<Review> createAll(List<Submission> batch) {
+        List<Review> saved = new ArrayList<>(batch.size());
+        List<ReviewTag> tagRows = new ArrayList<>();
+        for (Submission submission : batch) {
+            Review r = reviews.save(submission.review());
+            saved.add(r);
+            tagRows.addAll(newTagRows(r, submission.tagIds(), new HashSet<>()));
+        }
+        reviewTags.saveAll(tagRows);
+        reviews.flush();
+
+        // in id order, so concurrent batches lock the rows in the same order
+        Map<UUID, long[]> profDeltas = new TreeMap<>();
+        Map<UUID, long[]> classDeltas = new TreeMap<>();
+        Map<UUID, Map<UUID, Long>> tagged = new TreeMap<>();   // subject -> tag -> reviews carrying it
+        for (int i = 0; i < saved.size(); i++) {
+            Review r = saved.get(i);
+            if (professorId(r) != null && r.getRating() != null) {
+                AggregateWriteBehind.merge(profDeltas, professorId(r), AggregateWriteBehind.ratingDelta(r.getRating(), 1));
+            }
+            if (classId(r) != null) {
+                int difficulty = r.getDifficulty() == null ? 0 : r.getDifficulty();
+                AggregateWriteBehind.merge(classDeltas, classId(r),
+                        AggregateWriteBehind.classDelta(1, difficulty, r.getDifficulty() == null ? 0 : 1));
+            }
+            for (UUID subject : subjects(r)) {
+                var counts = tagged.computeIfAbsent(subject, k -> new HashMap<>());
+                for (UUID tagId : Set.copyOf(batch.get(i).tagIds())) counts.merge(tagId, 1L, Long::sum);
+            }
+        }
+
+        var touched = new Touched();
+        if (writeBehind.enabled()) {
+            profDeltas.forEach(writeBehind::addRatings);
+            classDeltas.forEach(writeBehind::addClassRatings);
+        } else {
+            writeBehind.write(profDeltas, classDeltas, Timestamp.from(Instant.now()));
+            touched.professors.addAll(profDeltas.keySet());
+            touched.classes.addAll(classDeltas.keySet());
         }
+        countTags(tagged);
+        publishUpdated(touched);
+        return saved;
+    }
+
+    /**
+     * A new review and the ids of its tags.
+     */
+    public record Submission(Review review, Collection<UUID> tagIds) {
+    }
+
+    /**
+     * Attaches tags to a saved review and counts them for its professor and class in the same
+     * transaction. Tags the review already carries are skipped.
+     */
+    @Transactional
+    public void addTags(Review review, Collection<UUID> tagIds) {
+        attachTags(review, tagIds, false);
+    }
+
+    private void attachTags(Review review, Collection<UUID> tagIds, boolean created) {
+        if (tagIds.isEmpty()) return;
+        Set<UUID> have = created ? new HashSet<>() : new HashSet<>(reviewTags.tagIdsForReview(review.getId()));
+        List<ReviewTag> rows = newTagRows(review, tagIds, have);
+        if (rows.isEmpty()) return;
+        // flushed together as one JDBC batch (hibernate.jdbc.batch_size)
+        reviewTags.saveAll(rows);
+        countTags(subjects(review), rows.stream().map(rt -> rt.getTag().getId()).toList(), 1);
+    }
 
-        if (courseClass != null) {
-            Double avg = reviews.avgDifficultyForClass(courseClass.getId());
-            long cnt = reviews.countForClass(courseClass.getId());
-            courseClass.setDifficultyAvg(
-                    avg == null ? null : BigDecimal.valueOf(avg).setScale(2, RoundingMode.HALF_UP)
-            );
-            courseClass.setTotalRatings((int) cnt);
-            classes.save(courseClass);
+    // rows for the tags not in {@code have}, which collects them as it goes
+    private List<ReviewTag> newTagRows(Review review, Collection<UUID> tagIds, Set<UUID> have) {
+        List<ReviewTag> rows = new ArrayList<>();
+        for (UUID tagId : tagIds) {
+            if (!have.add(tagId)) continue;
+            var rt = new ReviewTag();
+            rt.setReview(review);
+            rt.setTag(tags.getReferenceById(tagId));
+            rows.add(rt);
         }
+        return rows;
+    }
+
+    private static Set<UUID> subjects(Review review) {
+        var subjects = new HashSet<UUID>();
+        if (review.getProfessor() != null) subjects.add(review.getProfessor().getId());
+        if (review.getCourseClass() != null) subjects.add(review.getCourseClass().getId());
+        return subjects;
+    }
+
+    private static UUID professorId(Review review) {
+        return review.getProfessor() == null ? null : review.getProfessor().getId();
+    }
+
+    private static UUID classId(Review review) {
+        return review.getCourseClass() == null ? null : review.getCourseClass().getId();
+    }
+
+    private static void moved(UUID before, UUID after, Set<UUID> from, Set<UUID> to) {
+        if (Objects.equals(before, after)) return;
+        if (before != null) from.add(before);
+        if (after != null) to.add(after);
+    }
+
+    private void countTags(Collection<UUID> subjects, Collection<UUID> tagIds, int sign) {
+        if (subjects.isEmpty() || tagIds.isEmpty()) return;
+        if (sign > 0) subjects.forEach(subject -> tagCounts.ensure(subject, tagIds));
+        tagCounts.add(subjects, tagIds, sign);
+    }
+
+    // summed per subject; subjects whose tags moved by the same amounts share one UPDATE
+    private void countTags(Map<UUID, Map<UUID, Long>> tagged) {
+        Map<TagDelta, Set<UUID>> groups = new LinkedHashMap<>();
+        tagged.forEach((subject, counts) -> {
+            if (counts.isEmpty()) return;
+            tagCounts.ensure(subject, counts.keySet());
+            Map<Long, Set<UUID>> byDelta = new HashMap<>();
+            counts.forEach((tagId, n) -> byDelta.computeIfAbsent(n, k -> new HashSet<>()).add(tagId));
+            byDelta.forEach((n, tagIds) -> groups.computeIfAbsent(new TagDelta(n, tagIds), k -> new HashSet<>()).add(subject));
+        });
+        groups.forEach((d, subjects) -> tagCounts.add(subjects, d.tagIds(), d.delta()));
+    }
+
+    private record TagDelta(long delta, Set<UUID> tagIds) {
+    }
+
+    private void applyAggregates(UUID professorId, UUID classId, Integer rating, Integer difficulty, int sign,
+                                 Touched touched) {
+        if (writeBehind.enabled()) {
+            // merged with other reviews' deltas and written after commit, off this transaction
+            if (professorId != null && rating != null) writeBehind.addRating(professorId, rating, sign);
+            if (classId != null) {
+                writeBehind.addClassRating(classId, sign, difficulty == null ? 0 : difficulty, difficulty == null ? 0 : sign);
+            }
+            return;
+        }
+        Instant now = Instant.now();
+        if (professorId != null && rating != null) {
+            professors.addRating(professorId, rating, sign, now);
+            touched.professors.add(professorId);
+        }
+        if (classId != null) {
+            classes.addRating(classId, sign, difficulty == null ? 0 : difficulty, difficulty == null ? 0 : sign, now);
+            touched.classes.add(classId);
+        }
+    }
+
+    // bulk updates skip the entity listeners; tell the search index and caches ourselves, once per row
+    private void publishUpdated(Touched touched) {
+        touched.professors.forEach(id -> professors.findSearchRowById(id).ifPresent(row -> publishUpdated(Kind.PROFESSOR, row)));
+        touched.classes.forEach(id -> classes.findSearchRowById(id).ifPresent(row -> publishUpdated(Kind.CLASS, row)));
+    }
+
+    private void publishUpdated(Kind kind, SearchRow row) {
+        events.publishEvent(new CatalogChangedEvent(SearchDocument.of(kind, row), CatalogChangedEvent.Change.UPDATED));
+    }
+
+    private static final class Touched {
+        final Set<UUID> professors = new LinkedHashSet<>();
+        final Set<UUID> classes = new LinkedHashSet<>();
     }
-}
\ No newline at end of file
+}
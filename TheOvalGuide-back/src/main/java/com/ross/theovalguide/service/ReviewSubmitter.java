@@ -0,0 +1,176 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.service.ReviewService.Submission;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Front door for new reviews. With reviews.group-commit.enabled each submission joins a queue that one
+ * worker drains: whatever arrives within reviews.group-commit.window-ms (up to
+ * reviews.group-commit.max-batch) is written by {@link ReviewService#createAll} in a single transaction,
+ * so a burst of N submissions costs one connection checkout and one commit instead of N. Otherwise, or
+ * when the queue is full, the submission runs its own transaction as before.
+ * <p>
+ * If a batch fails, its submissions are retried one by one so a single bad review fails only its caller.
+ * A caller that times out withdraws its submission if no batch has taken it yet and gets 503; otherwise
+ * it waits for that batch, so a 503 always means nothing was written.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReviewSubmitter {
+
+    private final ReviewService reviewService;
+
+    @Value("${reviews.group-commit.enabled:false}")
+    private boolean enabled;
+
+    @Value("${reviews.group-commit.window-ms:5}")
+    private long windowMs;
+
+    @Value("${reviews.group-commit.max-batch:100}")
+    private int maxBatch;
+
+    @Value("${reviews.group-commit.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${reviews.group-commit.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private BlockingQueue<Pending> queue;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) return;
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        worker = Thread.ofPlatform().name("review-group-commit").daemon().start(this::drain);
+    }
+
+    /**
+     * Writes the review and its tags and returns its id once committed. A 503 means it was not written.
+     */
+    public UUID submit(Review review, Collection<UUID> tagIds) {
+        if (!enabled) return reviewService.createOrUpdate(review, tagIds).getId();
+        var pending = new Pending(new Submission(review, tagIds));
+        if (!running || !queue.offer(pending)) {
+            return reviewService.createOrUpdate(review, tagIds).getId();
+        }
+        // stop() may have drained the queue between the check and the offer
+        if (!running && pending.take()) return reviewService.createOrUpdate(review, tagIds).getId();
+        try {
+            try {
+                return pending.done().get(timeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // still queued: withdraw it, so a client retrying the 503 cannot end up with two reviews
+                if (pending.take()) {
+                    throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "review not written in time");
+                }
+                // already part of a batch: its commit decides
+                return pending.done().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (worker == null) return;
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(10));
+        // anything still queued is written before the context closes
+        List<Pending> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        if (!rest.isEmpty()) flush(rest);
+    }
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                // poll, not take: the worker is never interrupted, so a flush in progress always completes
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxBatch) {
+                    long left = deadline - System.nanoTime();
+                    if (left <= 0) break;
+                    Pending next = queue.poll(left, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, maxBatch - batch.size());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            flush(batch);
+            batch = new ArrayList<>(maxBatch);
+        }
+        if (!batch.isEmpty()) flush(batch);
+    }
+
+    private void flush(List<Pending> queued) {
+        // submissions withdrawn by their timed-out callers are skipped; the rest can no longer be withdrawn
+        List<Pending> batch = new ArrayList<>(queued.size());
+        for (Pending p : queued) {
+            if (p.take()) batch.add(p);
+        }
+        if (batch.isEmpty()) return;
+        try {
+            List<Review> saved = reviewService.createAll(batch.stream().map(Pending::submission).toList());
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).done().complete(saved.get(i).getId());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} reviews failed, retrying one by one: {}", batch.size(), e.toString());
+            for (Pending p : batch) {
+                try {
+                    p.submission().review().setId(null);   // assigned by the rolled-back persist
+                    p.done().complete(reviewService.createAll(List.of(p.submission())).get(0).getId());
+                } catch (RuntimeException single) {
+                    p.done().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private record Pending(Submission submission, CompletableFuture<UUID> done, AtomicBoolean taken) {
+
+        Pending(Submission submission) {
+            this(submission, new CompletableFuture<>(), new AtomicBoolean());
+        }
+
+        // exactly one side wins: the worker about to write it, or the caller writing it itself or giving up
+        boolean take() {
+            return taken.compareAndSet(false, true);
+        }
+    }
+}
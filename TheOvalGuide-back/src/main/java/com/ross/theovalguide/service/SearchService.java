@@ -1,89 +1,233 @@
 package com.ross.theovalguide.service;
 
+import com.ross.theovalguide.DTOS.search.SearchFacets;
 import com.ross.theovalguide.DTOS.search.SearchItem;
+import com.ross.theovalguide.DTOS.search.SearchPage;
 import com.ross.theovalguide.DTOS.search.SearchResponse;
-import com.ross.theovalguide.repo.CourseClassRepository;
-import com.ross.theovalguide.repo.ProfessorRepository;
-import com.ross.theovalguide.util.SlugUtil;
+import com.ross.theovalguide.service.search.CatalogSearchIndex;
+import com.ross.theovalguide.service.search.SearchBackend;
+import com.ross.theovalguide.service.search.SearchCursor;
+import com.ross.theovalguide.service.search.SearchDocument;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import com.ross.theovalguide.service.search.SearchFilter;
+import com.ross.theovalguide.service.search.SearchQuery;
+import com.ross.theovalguide.service.search.SearchResultCache;
+import com.ross.theovalguide.service.search.SearchScorer;
+import com.ross.theovalguide.service.search.Scored;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @RequiredArgsConstructor
 public class SearchService {
 
-    private final ProfessorRepository professors;
-    private final CourseClassRepository classes;
+    private final SearchBackend backend;
+    private final CatalogSearchIndex index;
+    private final SearchResultCache cache;
+
+    private static final int FACET_LIMIT = 20;
+
+    private final ExecutorService fanOut = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${search.deadline-ms:300}")
+    private long deadlineMs;
 
     public SearchResponse search(String q, int limit) {
-        // normalize
-        String raw = q == null ? "" : q.trim();
-        if (raw.isEmpty()) return new SearchResponse(List.of());
+        return search(q, limit, SearchFilter.NONE, false);
+    }
 
-        String normalized = raw.replaceFirst("(?i)^(dr\\.?|prof\\.?|professor)\\s+", "").trim();
-        String qNoSpace = normalized.replace(" ", "");
-        String slugCand = Optional.ofNullable(SlugUtil.toSlug(normalized)).orElse(normalized);
+    public SearchResponse search(String q, int limit, SearchFilter filter, boolean withFacets) {
+        // normalize
+        var query = SearchQuery.parse(q);
+        if (query.isEmpty()) return new SearchResponse(List.of());
 
         int cap = Math.max(1, Math.min(limit, 20));
-        var page = PageRequest.of(0, cap);
-
-        // results
-        List<SearchItem> items = new ArrayList<>(cap);
-
-        // Exact slug boost (first)
-        professors.findBySlugIgnoreCase(slugCand).ifPresent(p -> items.add(new SearchItem(
-                "professor",
-                p.getSlug(),
-                p.getName(),
-                p.getDepartment() + " — " + p.getUniversity(),
-                p.getOverallRating() == null ? null : p.getOverallRating().doubleValue(),
-                null
-        )));
-
-        // Wide search
-        var profPage = professors.searchProfessors(normalized, slugCand, page);
-        var classPage = classes.searchClasses(normalized, qNoSpace, page);
-
-        // Deduping
+
+        if (!filter.isEmpty() || withFacets) return faceted(query, filter, cap);
+
+        var key = SearchResultCache.Key.of(query, cap);
+        var cached = cache.get(key);
+        if (cached.isPresent()) return cached.get();
+        long generation = cache.generation();
+
+        // Exact slug lookup + wide search, fanned out so latency is the slowest lookup, not the sum
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        var slugFuture = submit(() -> backend.professorBySlug(query.slugCand()));
+        var profFuture = submit(() -> backend.professors(query, cap));
+        var classFuture = submit(() -> backend.classes(query, cap));
+
+        var partial = new AtomicBoolean(false);
+        Optional<SearchDocument> slugHit = await(slugFuture, deadline, Optional.empty(), partial);
+        List<SearchDocument> profHits = await(profFuture, deadline, List.of(), partial);
+        List<SearchDocument> classHits = await(classFuture, deadline, List.of(), partial);
+
+        // Score every candidate and merge both sources through a bounded min-heap of size cap
+        PriorityQueue<Scored> top = new PriorityQueue<>(cap + 1, Scored.ORDER);
         var seen = new HashSet<String>();
-        for (var it : List.copyOf(items)) seen.add(it.kind() + ":" + it.id());
-
-        profPage.forEach(p -> {
-            String key = "professor:" + p.getSlug();
-            if (seen.add(key)) {
-                items.add(new SearchItem(
-                        "professor",
-                        p.getSlug(),
-                        p.getName(),
-                        p.getDepartment() + " — " + p.getUniversity(),
-                        p.getOverallRating() == null ? null : p.getOverallRating().doubleValue(),
-                        null
-                ));
+        List<SearchDocument> candidates = new ArrayList<>(1 + profHits.size() + classHits.size());
+        slugHit.ifPresent(candidates::add);
+        candidates.addAll(profHits);
+        candidates.addAll(classHits);
+        for (var doc : candidates) {
+            if (!seen.add(doc.kind() + ":" + doc.id())) continue;
+            top.add(new Scored(doc, SearchScorer.score(doc, query)));
+            if (top.size() > cap) top.poll();
+        }
+
+        List<SearchDocument> ranked = new ArrayList<>(Scored.drainBestFirst(top));
+
+        // Too few hits, likely a typo: fill the remaining slots from the in-memory fuzzy index (no DB load)
+        if (ranked.size() < cap) {
+            var exclude = new HashSet<UUID>();
+            ranked.forEach(doc -> exclude.add(doc.id()));
+            ranked.addAll(index.fuzzy(query.normalized(), List.of(query.slugCand(), query.qNoSpace()),
+                    cap - ranked.size(), exclude));
+        }
+
+        List<SearchItem> items = ranked.stream()
+                .map(SearchDocument::toSearchItem)
+                .toList();
+        var response = new SearchResponse(items, partial.get());
+        // a partial answer is a one-off degradation, not something to keep serving
+        if (!response.partial()) cache.put(key, generation, response, ranked);
+        return response;
+    }
+
+    /**
+     * Filtered search with facet counts, answered entirely from the in-memory bitmaps whatever the
+     * configured backend.
+     */
+    private SearchResponse faceted(SearchQuery query, SearchFilter filter, int cap) {
+        var hits = index.faceted(filter, cap, FACET_LIMIT, doc -> SearchScorer.score(doc, query),
+                new String[]{query.normalized(), query.slugCand()},
+                new String[]{query.normalized(), query.qNoSpace()});
+        var items = hits.docs().stream().map(SearchDocument::toSearchItem).toList();
+        return new SearchResponse(items, false,
+                new SearchFacets(hits.total(), hits.universities(), hits.departments()));
+    }
+
+    /**
+     * One page of the "see all results" view: professors and classes ranked together, resumed from an
+     * opaque {@code cursor} (score + id of the previous page's last item). Both kinds are paged with the
+     * same keyset, so page N costs the same as page 1.
+     * <p>
+     * No deadline here: dropping a sub-query would skip its results for good once the cursor moves past them.
+     */
+    public SearchPage searchPage(String q, String cursor, int limit) {
+        var query = SearchQuery.parse(q);
+        if (query.isEmpty()) return new SearchPage(List.of(), null);
+
+        SearchCursor after;
+        try {
+            after = SearchCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "invalid cursor");
+        }
+        int cap = Math.max(1, Math.min(limit, 50));
+
+        // one extra row tells us whether another page exists
+        var profFuture = submit(() -> backend.page(Kind.PROFESSOR, query, after, cap + 1));
+        var classFuture = submit(() -> backend.page(Kind.CLASS, query, after, cap + 1));
+
+        PriorityQueue<Scored> top = new PriorityQueue<>(cap + 2, Scored.ORDER);
+        for (var hits : List.of(join(profFuture), join(classFuture))) {
+            for (var hit : hits) {
+                top.add(hit);
+                if (top.size() > cap + 1) top.poll();
             }
-        });
-
-        classPage.forEach(c -> {
-            String key = "class:" + c.getCode();
-            if (seen.add(key)) {
-                items.add(new SearchItem(
-                        "class",
-                        c.getCode(),
-                        c.getCode() + " — " + c.getTitle(),
-                        c.getDepartment() + " — " + c.getUniversity(),
-                        null,
-                        c.getDifficultyAvg() == null ? null : c.getDifficultyAvg().doubleValue()
-                ));
+        }
+
+        List<Scored> ranked = Scored.sortBestFirst(top);
+        boolean more = ranked.size() > cap;
+        if (more) ranked = ranked.subList(0, cap);
+
+        var items = ranked.stream().map(s -> s.doc().toSearchItem()).toList();
+        String next = more ? SearchCursor.after(ranked.get(cap - 1)).encode() : null;
+        return new SearchPage(items, next);
+    }
+
+    /**
+     * Typeahead completions over professor names/slugs and class codes, answered from memory only.
+     */
+    public SearchResponse suggest(String q, int limit) {
+        String prefix = SearchQuery.parse(q).normalized();
+        if (prefix.isEmpty()) return new SearchResponse(List.of());
+
+        int cap = Math.max(1, Math.min(limit, 20));
+        var items = index.suggest(prefix, cap).stream()
+                .map(SearchDocument::toSearchItem)
+                .toList();
+        return new SearchResponse(items);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        fanOut.shutdownNow();
+    }
+
+    private <T> Future<T> submit(Callable<T> lookup) {
+        if (!backend.blocking()) {
+            try {
+                return CompletableFuture.completedFuture(lookup.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
             }
-        });
+        }
+        return fanOut.submit(lookup);
+    }
+
+    private <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
 
-        // Return capped list without reassigning `items`
-        List<SearchItem> finalItems = items.size() > cap ? items.subList(0, cap) : items;
-        return new SearchResponse(finalItems);
+    /**
+     * Waits for a sub-query until the shared deadline. A late lookup is cancelled and replaced by
+     * {@code fallback}, and the response is flagged partial instead of blocking the caller.
+     */
+    private <T> T await(Future<T> future, long deadline, T fallback, AtomicBoolean partial) {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            partial.set(true);
+            return fallback;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            partial.set(true);
+            return fallback;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,130 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.Role;
+import com.ross.theovalguide.repo.SessionTokenRepository;
+import com.ross.theovalguide.util.BoundedTtlCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves an {@code oval_session} token to its user for every authenticated request.
+ * <p>
+ * Sessions are cached by token hash for sessions.cache.ttl-ms, so a hit costs a SHA-256 and a map lookup
+ * instead of a query; tokens that match no session are remembered for sessions.cache.negative-ttl-ms so
+ * a stale or forged cookie does not hit the database on every request either. Both caches are LRU-bounded
+ * by sessions.cache.max-entries. AuthService evicts a user's entries whenever it deletes their sessions
+ * (login, password change), and a lookup that read a session before such a delete committed does not
+ * keep it cached; a node that did not serve that call keeps its entries until they expire.
+ * <p>
+ * Publishes {@code cache.gets{result=hit|miss}}, {@code cache.evictions} and {@code cache.size}
+ * tagged {@code cache=session}.
+ */
+@Component
+public class SessionAuthenticator {
+
+    private final SessionTokenRepository tokens;
+    private final BoundedTtlCache<String, Session> sessions;
+    private final BoundedTtlCache<String, Boolean> unknown;
+    // bumped by every eviction; global because a lookup learns whose session it is only from the row
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SessionAuthenticator(SessionTokenRepository tokens,
+                                @Value("${sessions.cache.max-entries:10000}") int maxEntries,
+                                @Value("${sessions.cache.ttl-ms:60000}") long ttlMs,
+                                @Value("${sessions.cache.negative-ttl-ms:60000}") long negativeTtlMs,
+                                MeterRegistry meters) {
+        this.tokens = tokens;
+        this.sessions = new BoundedTtlCache<>(maxEntries, TimeUnit.MILLISECONDS.toNanos(ttlMs));
+        this.unknown = new BoundedTtlCache<>(maxEntries, TimeUnit.MILLISECONDS.toNanos(negativeTtlMs));
+
+        FunctionCounter.builder("cache.gets", sessions, BoundedTtlCache::hits)
+                .tags("cache", "session", "result", "hit").register(meters);
+        FunctionCounter.builder("cache.gets", sessions, BoundedTtlCache::misses)
+                .tags("cache", "session", "result", "miss").register(meters);
+        FunctionCounter.builder("cache.evictions", sessions, BoundedTtlCache::evictions)
+                .tags("cache", "session").register(meters);
+        Gauge.builder("cache.size", sessions, BoundedTtlCache::size)
+                .tags("cache", "session").register(meters);
+    }
+
+    /**
+     * The authenticated principal.
+     */
+    public record SessionUser(UUID id, String username, Role role) {
+
+        public List<GrantedAuthority> authorities() {
+            return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+        }
+    }
+
+    private record Session(SessionUser user, Instant expiresAt) {
+    }
+
+    /**
+     * The user of an unexpired session with this raw token.
+     */
+    public Optional<SessionUser> authenticate(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) return Optional.empty();
+        String hash = AuthService.hashToken(rawToken);
+
+        Session session = sessions.get(hash);
+        if (session == null) {
+            if (unknown.get(hash) != null) return Optional.empty();
+            long generation = evictions.get();
+            var row = tokens.findSessionByTokenHash(hash);
+            if (row.isEmpty()) {
+                unknown.put(hash, Boolean.TRUE);
+                return Optional.empty();
+            }
+            var r = row.get();
+            session = new Session(new SessionUser(r.getUserId(), r.getUsername(), r.getRole()), r.getExpiresAt());
+            sessions.put(hash, session);
+            // an eviction since the read may have deleted this session; checked after the put, so one that
+            // lands in between either removes the entry itself or is seen here
+            if (evictions.get() != generation) sessions.remove(hash);
+        }
+        if (!session.expiresAt().isAfter(Instant.now())) {
+            sessions.remove(hash);
+            return Optional.empty();
+        }
+        return Optional.of(session.user());
+    }
+
+    /**
+     * Drops every cached session of the user, now and again once the current transaction commits. A lookup
+     * that read the old session before the commit sees the eviction and does not cache it.
+     */
+    public void evictUser(UUID userId) {
+        Runnable evict = () -> {
+            evictions.incrementAndGet();
+            sessions.removeIf((hash, s) -> s.user().id().equals(userId));
+        };
+        evict.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        }
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+}
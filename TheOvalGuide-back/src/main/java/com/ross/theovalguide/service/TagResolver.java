@@ -0,0 +1,114 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.repo.TagRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps review tag labels to tag ids. Labels are compared trimmed, whitespace-collapsed and lower-cased,
+ * so "Tough  Grader" and "tough grader" are one tag.
+ * <p>
+ * Known labels are answered from an in-process map; all misses of a request are looked up in one query,
+ * and the ones that still do not exist are inserted if absent. Misses run in their own transaction so
+ * the map only ever holds ids of committed tags. Tags are never deleted by the application; tests and
+ * tools that delete them call {@link #clear()}.
+ */
+@Component
+@RequiredArgsConstructor
+public class TagResolver {
+
+    static final int MAX_TAGS = 10;
+    static final int MAX_LABEL = 50;
+
+    private final TagRepository tags;
+    private final PlatformTransactionManager transactions;
+
+    private final Map<String, UUID> ids = new ConcurrentHashMap<>();   // normalized label -> id
+
+    @Value("${tags.cache.max-entries:10000}")
+    private int maxEntries;
+
+    /**
+     * Ids of the distinct tags named by {@code labels}, in first-seen order, creating any that are missing.
+     * Blank labels are ignored; more than {@value #MAX_TAGS} tags or a label over {@value #MAX_LABEL}
+     * characters is a 400.
+     */
+    public List<UUID> resolve(List<String> labels) {
+        if (labels == null || labels.isEmpty()) return List.of();
+
+        Set<String> keys = new LinkedHashSet<>();
+        for (String label : labels) {
+            String key = normalize(label);
+            if (key == null) continue;
+            if (key.length() > MAX_LABEL) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "tags must be at most " + MAX_LABEL + " characters");
+            }
+            keys.add(key);
+        }
+        if (keys.size() > MAX_TAGS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "at most " + MAX_TAGS + " tags per review");
+        }
+
+        List<String> misses = keys.stream().filter(k -> !ids.containsKey(k)).toList();
+        Map<String, UUID> loaded = misses.isEmpty() ? Map.of() : load(misses);
+
+        List<UUID> out = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            UUID id = ids.get(key);
+            out.add(id != null ? id : loaded.get(key));   // loaded but not kept when the map is full
+        }
+        return out;
+    }
+
+    public void clear() {
+        ids.clear();
+    }
+
+    public int size() {
+        return ids.size();
+    }
+
+    static String normalize(String label) {
+        if (label == null) return null;
+        String key = label.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return key.isEmpty() ? null : key;
+    }
+
+    private Map<String, UUID> load(List<String> misses) {
+        var tx = new TransactionTemplate(transactions);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        Map<String, UUID> found = new HashMap<>();
+        tx.executeWithoutResult(s -> {
+            tags.findByLowerLabels(misses).forEach(row -> found.putIfAbsent(row.getLabel(), row.getId()));
+            List<String> missing = misses.stream().filter(k -> !found.containsKey(k)).toList();
+            if (missing.isEmpty()) return;
+
+            Instant now = Instant.now();
+            missing.forEach(label -> tags.insertIfAbsent(UUID.randomUUID(), label, now));
+            // read back rather than trust our ids: a concurrent request may have inserted the label first
+            tags.findByLowerLabels(missing).forEach(row -> found.putIfAbsent(row.getLabel(), row.getId()));
+        });
+        // cache only after commit
+        found.forEach((key, id) -> {
+            if (ids.size() < maxEntries) ids.putIfAbsent(key, id);
+        });
+        return found;
+    }
+}
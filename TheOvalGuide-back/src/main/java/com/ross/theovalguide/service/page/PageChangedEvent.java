@@ -0,0 +1,11 @@
+package com.ross.theovalguide.service.page;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Published by {@link PageEntityListener} when a review, advice, note or review tag is written;
+ * {@code ids} are the professors and classes whose pages show it.
+ */
+public record PageChangedEvent(Set<UUID> ids) {
+}
@@ -0,0 +1,60 @@
+package com.ross.theovalguide.service.page;
+
+import com.ross.theovalguide.model.Advice;
+import com.ross.theovalguide.model.BaseEntity;
+import com.ross.theovalguide.model.Note;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.model.ReviewTag;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * JPA listener on the rows that make up a professor or class page. Like
+ * {@link com.ross.theovalguide.service.search.CatalogEntityListener} it runs for every write path,
+ * so {@link PageReadModel} never has to be told about a new one.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageEntityListener {
+
+    private final ApplicationEventPublisher events;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void changed(Object entity) {
+        Set<UUID> ids = new HashSet<>();
+        switch (entity) {
+            case Review r -> addReview(ids, r);
+            case ReviewTag t -> {
+                // the tag's review is written in the same transaction; never load it from inside a flush
+                if (Hibernate.isInitialized(t.getReview())) addReview(ids, t.getReview());
+            }
+            case Advice a -> add(ids, a.getCourseClass());
+            case Note n -> add(ids, n.getCourseClass());
+            default -> {
+            }
+        }
+        if (!ids.isEmpty()) events.publishEvent(new PageChangedEvent(ids));
+    }
+
+    private static void addReview(Set<UUID> ids, Review r) {
+        if (r == null) return;
+        add(ids, r.getProfessor());
+        add(ids, r.getCourseClass());
+    }
+
+    // getId() on a lazy proxy does not initialize it
+    private static void add(Set<UUID> ids, BaseEntity owner) {
+        if (owner != null && owner.getId() != null) ids.add(owner.getId());
+    }
+}
@@ -0,0 +1,11 @@
+package com.ross.theovalguide.service.page;
+
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * An assembled page plus every other professor/class it shows data of (names, ratings, codes),
+ * so {@link PageReadModel} knows which writes make it stale.
+ */
+public record PageModel<T>(UUID id, T body, Set<UUID> references) {
+}
@@ -0,0 +1,241 @@
+package com.ross.theovalguide.service.page;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ross.theovalguide.service.ClassQueryService;
+import com.ross.theovalguide.service.ProfessorQueryService;
+import com.ross.theovalguide.service.search.CatalogChangedEvent;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import com.ross.theovalguide.util.ClassCodeUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read model of the professor and class pages: the assembled response per slug / normalized code,
+ * already serialized to JSON, so a page load is a map lookup and a byte copy however many reviews
+ * the page summarizes.
+ * <p>
+ * Pages are built on first read. A write to anything a page shows ({@link PageChangedEvent} for
+ * reviews, advice and notes, {@link CatalogChangedEvent} for the professors and classes themselves)
+ * drops every page that depends on it once the transaction commits and rebuilds those pages in the
+ * background. Bounded LRU; least recently read pages are dropped first.
+ */
+@Slf4j
+@Service
+public class PageReadModel {
+
+    private final ClassQueryService classQueries;
+    private final ProfessorQueryService professorQueries;
+    private final ObjectMapper json;
+    private final int maxEntries;
+
+    private final LinkedHashMap<PageKey, Page> pages;
+    private final Map<UUID, Set<PageKey>> dependents = new HashMap<>();   // entity id -> pages showing it
+    private long generation;                                              // bumped by every invalidation
+
+    private final Set<PageKey> rebuilding = ConcurrentHashMap.newKeySet();
+    private final ExecutorService rebuilds = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PageReadModel(ClassQueryService classQueries,
+                         ProfessorQueryService professorQueries,
+                         ObjectMapper json,
+                         @Value("${pages.max-entries:5000}") int maxEntries,
+                         MeterRegistry meters) {
+        this.classQueries = classQueries;
+        this.professorQueries = professorQueries;
+        this.json = json;
+        this.maxEntries = maxEntries;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<PageKey, Page> eldest) {
+                if (size() <= PageReadModel.this.maxEntries) return false;
+                unindex(eldest.getKey(), eldest.getValue());
+                evictions.increment();
+                return true;
+            }
+        };
+
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+                .tags("cache", "pages", "result", "hit").register(meters);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+                .tags("cache", "pages", "result", "miss").register(meters);
+        FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+                .tags("cache", "pages").register(meters);
+        Gauge.builder("cache.size", this, PageReadModel::size)
+                .tags("cache", "pages").register(meters);
+    }
+
+    public record PageKey(Kind kind, String key) {
+    }
+
+    private record Page(Set<UUID> dependsOn, byte[] body) {
+    }
+
+    /**
+     * JSON of {@code ClassResponse} for any spelling of the code; 404 when there is no such class.
+     */
+    public byte[] classPage(String code) {
+        String key = ClassCodeUtil.normalize(code);
+        if (key == null) throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        return page(new PageKey(Kind.CLASS, key));
+    }
+
+    /**
+     * JSON of {@code ProfessorResponse} for the slug, case-insensitive; 404 when there is no such professor.
+     */
+    public byte[] professorPage(String slug) {
+        return page(new PageKey(Kind.PROFESSOR, slug.trim().toLowerCase(Locale.ROOT)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPageChanged(PageChangedEvent event) {
+        refresh(event.ids());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        refresh(List.of(event.document().id()));
+    }
+
+    /**
+     * Drops every page; for writes that bypass the entity listeners (bulk JPQL/SQL).
+     */
+    public synchronized void clear() {
+        generation++;
+        pages.clear();
+        dependents.clear();
+    }
+
+    public synchronized int size() {
+        return pages.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuilds.shutdownNow();
+    }
+
+    private byte[] page(PageKey key) {
+        byte[] hit = cached(key);
+        if (hit != null) {
+            hits.increment();
+            return hit;
+        }
+        misses.increment();
+        return build(key);
+    }
+
+    private byte[] build(PageKey key) {
+        long since = generation();
+        PageModel<?> model = key.kind() == Kind.CLASS
+                ? classQueries.loadClassPage(key.key())
+                : professorQueries.loadProfessorPage(key.key());
+        byte[] body;
+        try {
+            body = json.writeValueAsBytes(model.body());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize page " + key, e);
+        }
+        Set<UUID> dependsOn = new HashSet<>(model.references());
+        dependsOn.add(model.id());
+        store(key, since, new Page(Set.copyOf(dependsOn), body));
+        return body;
+    }
+
+    private void refresh(Collection<UUID> ids) {
+        for (PageKey key : invalidate(ids)) {
+            scheduleRebuild(key);
+        }
+    }
+
+    // coalesces bursts: a key already waiting for a rebuild is not queued twice
+    private void scheduleRebuild(PageKey key) {
+        if (!rebuilding.add(key)) return;
+        try {
+            rebuilds.execute(() -> {
+                rebuilding.remove(key);
+                try {
+                    build(key);
+                } catch (ResponseStatusException gone) {
+                    // renamed or deleted; nothing to rebuild under this key
+                } catch (RuntimeException e) {
+                    log.warn("Rebuilding page {} failed; it will be built on the next read", key, e);
+                }
+            });
+        } catch (RejectedExecutionException shuttingDown) {
+            rebuilding.remove(key);
+        }
+    }
+
+    private synchronized long generation() {
+        return generation;
+    }
+
+    private synchronized byte[] cached(PageKey key) {
+        Page p = pages.get(key);
+        return p == null ? null : p.body();
+    }
+
+    // skipped when anything was invalidated since the build started: it may have read the old rows
+    private synchronized void store(PageKey key, long since, Page page) {
+        if (generation != since) return;
+        Page old = pages.put(key, page);
+        if (old != null) unindex(key, old);
+        for (UUID id : page.dependsOn()) {
+            dependents.computeIfAbsent(id, k -> new HashSet<>()).add(key);
+        }
+    }
+
+    private synchronized List<PageKey> invalidate(Collection<UUID> ids) {
+        generation++;
+        List<PageKey> dropped = new ArrayList<>();
+        for (UUID id : ids) {
+            Set<PageKey> keys = dependents.remove(id);
+            if (keys == null) continue;
+            for (PageKey key : keys) {
+                Page p = pages.remove(key);
+                if (p == null) continue;
+                unindex(key, p);
+                dropped.add(key);
+            }
+        }
+        return dropped;
+    }
+
+    private void unindex(PageKey key, Page page) {
+        for (UUID id : page.dependsOn()) {
+            Set<PageKey> keys = dependents.get(id);
+            if (keys == null) continue;
+            keys.remove(key);
+            if (keys.isEmpty()) dependents.remove(id);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ross.theovalguide.service.search;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Burkhard-Keller tree over terms under Levenshtein distance, each term carrying the documents it
+ * belongs to. A lookup with tolerance {@code d} only descends into children whose edge distance is
+ * within {@code d} of the query's distance to the parent (triangle inequality), so it touches a small
+ * part of the tree.
+ * <p>
+ * Removing a document only clears it from the term's posting list; the (now empty) term stays in the
+ * tree as a routing node. Not thread-safe; {@link CatalogSearchIndex} guards it.
+ */
+final class BkTree {
+
+    private Node root;
+    private int terms;
+
+    void add(int doc, Iterable<String> keys) {
+        for (String key : keys) {
+            if (!key.isEmpty()) node(key).docs.add(doc);
+        }
+    }
+
+    void remove(int doc, Iterable<String> keys) {
+        for (String key : keys) {
+            Node n = find(key);
+            if (n != null) n.docs.remove(doc);
+        }
+    }
+
+    int size() {
+        return terms;
+    }
+
+    /**
+     * Calls {@code visitor} for every non-empty term within {@code maxDistance} edits of {@code word}.
+     */
+    void search(String word, int maxDistance, Visitor visitor) {
+        if (root == null) return;
+        Deque<Node> todo = new ArrayDeque<>();
+        todo.push(root);
+        while (!todo.isEmpty()) {
+            Node n = todo.pop();
+            int d = distance(word, n.term);
+            if (d <= maxDistance && !n.docs.isEmpty()) visitor.visit(n.term, d, n.docs);
+            for (var edge : n.children.entrySet()) {
+                if (Math.abs(edge.getKey() - d) <= maxDistance) todo.push(edge.getValue());
+            }
+        }
+    }
+
+    private Node node(String term) {
+        if (root == null) {
+            terms++;
+            return root = new Node(term);
+        }
+        Node n = root;
+        while (true) {
+            int d = distance(term, n.term);
+            if (d == 0) return n;
+            Node next = n.children.get(d);
+            if (next == null) {
+                terms++;
+                next = new Node(term);
+                n.children.put(d, next);
+                return next;
+            }
+            n = next;
+        }
+    }
+
+    private Node find(String term) {
+        Node n = root;
+        while (n != null) {
+            int d = distance(term, n.term);
+            if (d == 0) return n;
+            n = n.children.get(d);
+        }
+        return null;
+    }
+
+    /**
+     * Exact Levenshtein distance; pruning by the triangle inequality needs the true value, not a cut-off one.
+     */
+    static int distance(String a, String b) {
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) prev[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[b.length()];
+    }
+
+    @FunctionalInterface
+    interface Visitor {
+        void visit(String term, int distance, RoaringBitmap docs);
+    }
+
+    private static final class Node {
+        final String term;
+        final RoaringBitmap docs = new RoaringBitmap();
+        final Map<Integer, Node> children = new HashMap<>(4);
+
+        Node(String term) {
+            this.term = term;
+        }
+    }
+}
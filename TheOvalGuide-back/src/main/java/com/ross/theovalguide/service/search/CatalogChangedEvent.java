@@ -0,0 +1,17 @@
+package com.ross.theovalguide.service.search;
+
+/**
+ * Published by {@link CatalogEntityListener} whenever a professor or class row is written.
+ */
+public record CatalogChangedEvent(SearchDocument document, Change change) {
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        REMOVED
+    }
+
+    public boolean removed() {
+        return change == Change.REMOVED;
+    }
+}
@@ -0,0 +1,50 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.service.search.CatalogChangedEvent.Change;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * JPA listener on {@link Professor} and {@link CourseClass}. Hibernate resolves it through Spring's bean
+ * container, so every insert/update/delete of those rows turns into a {@link CatalogChangedEvent}
+ * no matter which service did the write.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogEntityListener {
+
+    private final ApplicationEventPublisher events;
+
+    @PostPersist
+    void created(Object entity) {
+        publish(entity, Change.CREATED);
+    }
+
+    @PostUpdate
+    void updated(Object entity) {
+        publish(entity, Change.UPDATED);
+    }
+
+    @PostRemove
+    void removed(Object entity) {
+        publish(entity, Change.REMOVED);
+    }
+
+    private void publish(Object entity, Change change) {
+        toDocument(entity).ifPresent(doc -> events.publishEvent(new CatalogChangedEvent(doc, change)));
+    }
+
+    private static Optional<SearchDocument> toDocument(Object entity) {
+        if (entity instanceof Professor p) return Optional.of(SearchDocument.of(p));
+        if (entity instanceof CourseClass c) return Optional.of(SearchDocument.of(c));
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,408 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.DTOS.LabelCountDto;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * In-memory search index over professors and classes.
+ * <p>
+ * Built at startup by {@code SearchIndexLoader} and kept current through {@link CatalogChangedEvent}s,
+ * which are applied only after the writing transaction commits.
+ */
+@Component
+public class CatalogSearchIndex {
+
+    // one extra edit always outweighs any popularity difference
+    private static final double FUZZY_EDIT_PENALTY = 100;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TrigramIndex trigrams = new TrigramIndex();
+    private final PrefixTrie suggestions = new PrefixTrie();
+    private final BkTree fuzzy = new BkTree();
+    private final List<Entry> entries = new ArrayList<>();           // by ordinal, null once removed
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Map<String, Integer> keys = new HashMap<>();       // kind + lower(key) -> ordinal
+    private final Map<Kind, RoaringBitmap> byKind = new EnumMap<>(Kind.class);
+    private final FacetIndex byUniversity = new FacetIndex();
+    private final FacetIndex byDepartment = new FacetIndex();
+    private long version;                                              // bumped on every change
+
+    public CatalogSearchIndex() {
+        for (Kind k : Kind.values()) byKind.put(k, new RoaringBitmap());
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.removed()) {
+            remove(event.document().id());
+        } else {
+            upsert(event.document());
+        }
+    }
+
+    public void upsert(SearchDocument doc) {
+        lock.writeLock().lock();
+        try {
+            Integer ord = ordinals.get(doc.id());
+            if (ord != null) {
+                Entry old = entries.get(ord);
+                // ignore stale copies, e.g. a startup load racing a fresh write
+                if (isOlder(doc, old.doc())) return;
+
+                String[] fields = doc.searchFields();
+                if (!Arrays.equals(fields, old.fields())) {
+                    trigrams.remove(ord, old.fields());
+                    trigrams.add(ord, fields);
+                }
+                Set<String> oldKeys = old.doc().suggestKeys();
+                Set<String> newKeys = doc.suggestKeys();
+                if (!oldKeys.equals(newKeys)) {
+                    suggestions.remove(ord, oldKeys);
+                    suggestions.add(ord, doc.totalRatings(), newKeys);
+                } else {
+                    suggestions.rescore(ord, doc.totalRatings(), newKeys);
+                }
+                Set<String> oldTerms = old.doc().fuzzyTerms();
+                Set<String> newTerms = doc.fuzzyTerms();
+                if (!oldTerms.equals(newTerms)) {
+                    fuzzy.remove(ord, oldTerms);
+                    fuzzy.add(ord, newTerms);
+                }
+                byUniversity.remove(ord, old.doc().university());
+                byUniversity.add(ord, doc.university());
+                byDepartment.remove(ord, old.doc().department());
+                byDepartment.add(ord, doc.department());
+                keys.remove(keyOf(old.doc()));
+                keys.put(keyOf(doc), ord);
+                entries.set(ord, new Entry(doc, fields));
+                version++;
+                return;
+            }
+
+            int next = entries.size();
+            String[] fields = doc.searchFields();
+            entries.add(new Entry(doc, fields));
+            ordinals.put(doc.id(), next);
+            keys.put(keyOf(doc), next);
+            byKind.get(doc.kind()).add(next);
+            trigrams.add(next, fields);
+            suggestions.add(next, doc.totalRatings(), doc.suggestKeys());
+            fuzzy.add(next, doc.fuzzyTerms());
+            byUniversity.add(next, doc.university());
+            byDepartment.add(next, doc.department());
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            Integer ord = ordinals.remove(id);
+            if (ord == null) return;
+            Entry old = entries.set(ord, null);
+            trigrams.remove(ord, old.fields());
+            suggestions.remove(ord, old.doc().suggestKeys());
+            fuzzy.remove(ord, old.doc().fuzzyTerms());
+            byUniversity.remove(ord, old.doc().university());
+            byDepartment.remove(ord, old.doc().department());
+            keys.remove(keyOf(old.doc()));
+            byKind.get(old.doc().kind()).remove(ord);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Exact, case-insensitive lookup by slug (professors) or code (classes).
+     */
+    public Optional<SearchDocument> findByKey(Kind kind, String key) {
+        lock.readLock().lock();
+        try {
+            Integer ord = keys.get(kind.name() + ":" + SearchDocument.lower(key));
+            return ord == null ? Optional.empty() : Optional.of(entries.get(ord).doc());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Documents of {@code kind} where any search field contains any of the {@code needles}
+     * (case-insensitive), most-rated first.
+     */
+    public List<SearchDocument> search(Kind kind, int limit, String... needles) {
+        return search(kind, limit, SearchDocument::totalRatings, needles);
+    }
+
+    /**
+     * Same matching as {@link #search(Kind, int, String...)}, keeping the {@code limit} best documents
+     * by {@code score}, best first.
+     */
+    public List<SearchDocument> search(Kind kind, int limit, ToDoubleFunction<SearchDocument> score, String... needles) {
+        return Scored.drainBestFirst(top(kind, SearchCursor.FIRST, limit, score, needles));
+    }
+
+    /**
+     * Keyset page of the same ranking: the {@code limit} best matches that come after {@code after}.
+     * Costs one pass over the matches whatever the page number.
+     */
+    public List<Scored> page(Kind kind, SearchCursor after, int limit, ToDoubleFunction<SearchDocument> score, String... needles) {
+        return Scored.sortBestFirst(top(kind, after, limit, score, needles));
+    }
+
+    private PriorityQueue<Scored> top(Kind kind, SearchCursor after, int limit, ToDoubleFunction<SearchDocument> score, String... needles) {
+        lock.readLock().lock();
+        try {
+            return top(matching(kind, needles), after, limit, score);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // bounded min-heap: keeps the `limit` best documents of `docs` below the cursor
+    private PriorityQueue<Scored> top(RoaringBitmap docs, SearchCursor after, int limit, ToDoubleFunction<SearchDocument> score) {
+        PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, Scored.ORDER);
+        docs.forEach((int ord) -> {
+            SearchDocument doc = entries.get(ord).doc();
+            double s = score.applyAsDouble(doc);
+            if (!after.admits(s, doc.id())) return;
+            top.add(new Scored(doc, s));
+            if (top.size() > limit) top.poll();
+        });
+        return top;
+    }
+
+    /**
+     * Search with {@link SearchFilter}s plus university/department facet counts, answered from bitmaps:
+     * the text matches are intersected with the university and department bitmaps, and each facet value
+     * is counted against the matches under every other filter (so picking a university still shows the
+     * other universities' counts). Rating thresholds are checked per matching document.
+     */
+    public FacetedHits faceted(SearchFilter filter, int limit, int facetLimit, ToDoubleFunction<SearchDocument> score,
+                               String[] professorNeedles, String[] classNeedles) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap matched = RoaringBitmap.or(
+                    matching(Kind.PROFESSOR, professorNeedles), matching(Kind.CLASS, classNeedles));
+
+            RoaringBitmap rated = matched;
+            if (filter.minRating() != null || filter.minDifficulty() != null) {
+                RoaringBitmap passing = new RoaringBitmap();
+                matched.forEach((int ord) -> {
+                    if (filter.admitsRating(entries.get(ord).doc())) passing.add(ord);
+                });
+                rated = passing;
+            }
+            RoaringBitmap inUniversity = filter.hasUniversity()
+                    ? RoaringBitmap.and(rated, byUniversity.docs(filter.university())) : rated;
+            RoaringBitmap inDepartment = filter.hasDepartment()
+                    ? RoaringBitmap.and(rated, byDepartment.docs(filter.department())) : rated;
+            RoaringBitmap hits = RoaringBitmap.and(inUniversity, inDepartment);
+
+            return new FacetedHits(
+                    Scored.drainBestFirst(top(hits, SearchCursor.FIRST, limit, score)),
+                    hits.getLongCardinality(),
+                    byUniversity.counts(inDepartment, facetLimit),
+                    byDepartment.counts(inUniversity, facetLimit));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public record FacetedHits(List<SearchDocument> docs, long total,
+                              List<LabelCountDto> universities, List<LabelCountDto> departments) {
+    }
+
+    /**
+     * Ordinals of {@code kind} where any search field contains any of the needles. Trigram postings give
+     * the candidates, every candidate is then verified. Caller holds the read lock.
+     */
+    private RoaringBitmap matching(Kind kind, String... needles) {
+        RoaringBitmap candidates = new RoaringBitmap();
+        List<String> lowered = new ArrayList<>(needles.length);
+        for (String n : needles) {
+            String needle = SearchDocument.lower(n);
+            if (needle.isEmpty() || lowered.contains(needle)) continue;
+            lowered.add(needle);
+
+            RoaringBitmap hits = trigrams.candidates(needle);
+            candidates.or(hits == null ? byKind.get(kind) : hits);
+        }
+        candidates.and(byKind.get(kind));
+
+        RoaringBitmap out = new RoaringBitmap();
+        candidates.forEach((int ord) -> {
+            if (matches(entries.get(ord).fields(), lowered)) out.add(ord);
+        });
+        return out;
+    }
+
+    /**
+     * Typeahead completions: documents whose name, slug or code starts with {@code prefix},
+     * most-rated first.
+     */
+    public List<SearchDocument> suggest(String prefix, int limit) {
+        lock.readLock().lock();
+        try {
+            List<SearchDocument> out = new ArrayList<>(limit);
+            for (int ord : suggestions.complete(SearchDocument.lower(prefix), limit)) {
+                out.add(entries.get(ord).doc());
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Typo-tolerant fallback over professor name words, slugs and space-less class codes. A document
+     * matches when every 3+ letter word of {@code text} is within the allowed edit distance of one of its
+     * terms, or when one of the {@code wholes} (e.g. slug or code candidates) is. Allowed distance is 1
+     * for words up to 5 letters and 2 beyond. Ranked by total edits, then popularity; documents in
+     * {@code exclude} are skipped.
+     */
+    public List<SearchDocument> fuzzy(String text, Collection<String> wholes, int limit, Set<UUID> exclude) {
+        if (limit <= 0) return List.of();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> best = null;    // ordinal -> summed edits over the words
+            for (String word : SearchDocument.lower(text).split("[^\\p{L}\\p{N}]+")) {
+                if (word.length() < 3) continue;
+                Map<Integer, Integer> hits = closest(word);
+                if (best == null) {
+                    best = hits;
+                } else {
+                    best.keySet().retainAll(hits.keySet());
+                    best.replaceAll((ord, d) -> d + hits.get(ord));
+                }
+                if (best.isEmpty()) break;
+            }
+            Map<Integer, Integer> matched = best == null ? new HashMap<>() : best;
+            for (String whole : wholes) {
+                String w = SearchDocument.lower(whole);
+                if (w.length() < 3) continue;
+                closest(w).forEach((ord, d) -> matched.merge(ord, d, Math::min));
+            }
+
+            PriorityQueue<Scored> top = new PriorityQueue<>(limit + 1, Scored.ORDER);
+            for (var hit : matched.entrySet()) {
+                SearchDocument doc = entries.get(hit.getKey()).doc();
+                if (exclude.contains(doc.id())) continue;
+                double score = -FUZZY_EDIT_PENALTY * hit.getValue() + Math.log1p(Math.max(0, doc.totalRatings()));
+                top.add(new Scored(doc, score));
+                if (top.size() > limit) top.poll();
+            }
+            return Scored.drainBestFirst(top);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Copy of every indexed document, for snapshots.
+     */
+    public List<SearchDocument> documents() {
+        lock.readLock().lock();
+        try {
+            List<SearchDocument> out = new ArrayList<>(ordinals.size());
+            for (Entry e : entries) {
+                if (e != null) out.add(e.doc());
+            }
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Drops documents whose id is not in {@code present}, skipping any written at or after {@code before}
+     * (they may have been created after {@code present} was read). Returns how many were removed.
+     */
+    public int removeMissing(Set<UUID> present, Instant before) {
+        List<UUID> gone = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            for (Entry e : entries) {
+                if (e == null || present.contains(e.doc().id())) continue;
+                Instant at = e.doc().updatedAt();
+                if (at == null || at.isBefore(before)) gone.add(e.doc().id());
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        gone.forEach(this::remove);
+        return gone.size();
+    }
+
+    /**
+     * Changes applied so far; lets the snapshot writer skip unchanged indexes.
+     */
+    public long version() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Integer, Integer> closest(String word) {
+        Map<Integer, Integer> out = new HashMap<>();
+        fuzzy.search(word, word.length() <= 5 ? 1 : 2,
+                (term, d, docs) -> docs.forEach((int ord) -> out.merge(ord, d, Math::min)));
+        return out;
+    }
+
+    private static boolean matches(String[] fields, List<String> needles) {
+        for (String f : fields) {
+            for (String n : needles) {
+                if (f.contains(n)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOlder(SearchDocument candidate, SearchDocument current) {
+        return candidate.updatedAt() != null && current.updatedAt() != null
+                && candidate.updatedAt().isBefore(current.updatedAt());
+    }
+
+    private static String keyOf(SearchDocument doc) {
+        return doc.kind().name() + ":" + SearchDocument.lower(doc.key());
+    }
+
+    private record Entry(SearchDocument doc, String[] fields) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.DTOS.LabelCountDto;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * One bitmap of document ordinals per distinct value of a column (university, department), matched
+ * case- and whitespace-insensitively. Filters are bitmap intersections and facet counts are
+ * {@code andCardinality} calls, so neither touches the documents themselves.
+ * Not thread-safe; {@link CatalogSearchIndex} guards it.
+ */
+final class FacetIndex {
+
+    private final Map<String, Facet> values = new HashMap<>();
+
+    void add(int doc, String value) {
+        String key = normalize(value);
+        if (key.isEmpty()) return;
+        values.computeIfAbsent(key, k -> new Facet(value.trim(), new RoaringBitmap())).docs().add(doc);
+    }
+
+    void remove(int doc, String value) {
+        String key = normalize(value);
+        Facet f = values.get(key);
+        if (f == null) return;
+        f.docs().remove(doc);
+        if (f.docs().isEmpty()) values.remove(key);
+    }
+
+    /**
+     * Documents with this value; empty (never null) for unknown values.
+     */
+    RoaringBitmap docs(String value) {
+        Facet f = values.get(normalize(value));
+        return f == null ? new RoaringBitmap() : f.docs();
+    }
+
+    /**
+     * The {@code limit} values with the most documents in {@code within}, largest first.
+     */
+    List<LabelCountDto> counts(RoaringBitmap within, int limit) {
+        if (within.isEmpty()) return List.of();
+        Comparator<LabelCountDto> order = Comparator.comparingLong(LabelCountDto::count)
+                .thenComparing(LabelCountDto::label, Comparator.reverseOrder());
+        PriorityQueue<LabelCountDto> top = new PriorityQueue<>(limit + 1, order);
+        for (Facet f : values.values()) {
+            long n = RoaringBitmap.andCardinality(within, f.docs());
+            if (n == 0) continue;
+            top.add(new LabelCountDto(f.label(), n));
+            if (top.size() > limit) top.poll();
+        }
+        return top.stream().sorted(order.reversed()).toList();
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private record Facet(String label, RoaringBitmap docs) {
+    }
+}
@@ -0,0 +1,181 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshot of the search documents, so a restarting node can fill {@link CatalogSearchIndex}
+ * from local disk instead of scanning both tables.
+ * <p>
+ * Layout (big-endian):
+ * <pre>
+ * header   int magic "OVSI", int version, long watermark seconds, int watermark nanos, int count
+ * count x  byte kind, long+long id, str key, str title, str department, str university,
+ *          double rating (NaN = null), int totalRatings, long seconds + int nanos updatedAt (-1 = null)
+ * trailer  long CRC32 of everything before it
+ * str      int byte length (-1 = null) + UTF-8 bytes
+ * </pre>
+ * The watermark is the newest {@code updatedAt} in the file; rows changed after it are caught up from
+ * the database. Files with another magic, version or checksum are ignored and the index is rebuilt.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "search.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class IndexSnapshotStore {
+
+    static final int MAGIC = 0x4F565349;   // "OVSI"
+    static final int VERSION = 1;
+
+    private final Path path;
+
+    public IndexSnapshotStore(@Value("${search.snapshot.path:data/search-index.snapshot}") Path path) {
+        this.path = path;
+    }
+
+    public record Snapshot(Instant watermark, List<SearchDocument> documents) {
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    /**
+     * Writes to a temp file next to the target and renames it over, so readers never see a torn file.
+     */
+    public void write(Collection<SearchDocument> docs) throws IOException {
+        Instant watermark = Instant.EPOCH;
+        for (SearchDocument d : docs) {
+            if (d.updatedAt() != null && d.updatedAt().isAfter(watermark)) watermark = d.updatedAt();
+        }
+
+        Path dir = path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(tmp)) {
+                CRC32 crc = new CRC32();
+                var out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16), crc));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                writeInstant(out, watermark);
+                out.writeInt(docs.size());
+                for (SearchDocument d : docs) {
+                    out.writeByte(d.kind().ordinal());
+                    out.writeLong(d.id().getMostSignificantBits());
+                    out.writeLong(d.id().getLeastSignificantBits());
+                    writeString(out, d.key());
+                    writeString(out, d.title());
+                    writeString(out, d.department());
+                    writeString(out, d.university());
+                    out.writeDouble(d.rating() == null ? Double.NaN : d.rating());
+                    out.writeInt(d.totalRatings());
+                    writeInstant(out, d.updatedAt());
+                }
+                out.flush();
+                // the checksum itself is not part of the checked bytes
+                new DataOutputStream(file).writeLong(crc.getValue());
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Memory-maps and decodes the snapshot; empty if there is none or it cannot be trusted.
+     */
+    public Optional<Snapshot> read() {
+        if (!Files.isRegularFile(path)) return Optional.empty();
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            return Optional.of(decode(buf));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring search index snapshot {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    static Snapshot decode(ByteBuffer buf) {
+        if (buf.remaining() < Long.BYTES) throw new IllegalStateException("truncated");
+        int end = buf.limit() - Long.BYTES;
+        CRC32 crc = new CRC32();
+        crc.update(buf.duplicate().limit(end));
+        if (crc.getValue() != buf.getLong(end)) throw new IllegalStateException("checksum mismatch");
+
+        if (buf.getInt() != MAGIC) throw new IllegalStateException("not a search index snapshot");
+        int version = buf.getInt();
+        if (version != VERSION) throw new IllegalStateException("unsupported version " + version);
+        Instant watermark = readInstant(buf);
+        int count = buf.getInt();
+
+        Kind[] kinds = Kind.values();
+        List<SearchDocument> docs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Kind kind = kinds[buf.get()];
+            UUID id = new UUID(buf.getLong(), buf.getLong());
+            String key = readString(buf);
+            String title = readString(buf);
+            String department = readString(buf);
+            String university = readString(buf);
+            double rating = buf.getDouble();
+            int totalRatings = buf.getInt();
+            Instant updatedAt = readInstant(buf);
+            docs.add(new SearchDocument(kind, id, key, title, department, university,
+                    Double.isNaN(rating) ? null : rating, totalRatings, updatedAt));
+        }
+        return new Snapshot(watermark, docs);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0) return null;
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInstant(DataOutputStream out, Instant t) throws IOException {
+        out.writeLong(t == null ? -1 : t.getEpochSecond());
+        out.writeInt(t == null ? 0 : t.getNano());
+    }
+
+    private static Instant readInstant(ByteBuffer buf) {
+        long seconds = buf.getLong();
+        int nanos = buf.getInt();
+        return seconds < 0 ? null : Instant.ofEpochSecond(seconds, nanos);
+    }
+}
@@ -0,0 +1,59 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Substring search straight against the tables. Unranked and unindexed; kept for H2 and debugging.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "search.backend", havingValue = "like")
+public class LikeSearchBackend implements SearchBackend {
+
+    private final ProfessorRepository professors;
+    private final CourseClassRepository classes;
+
+    @Override
+    public Optional<SearchDocument> professorBySlug(String slug) {
+        return professors.findSearchRowBySlug(slug).map(row -> SearchDocument.of(Kind.PROFESSOR, row));
+    }
+
+    @Override
+    public List<SearchDocument> professors(SearchQuery query, int limit) {
+        return professors.searchProfessors(query.normalized(), query.slugCand(), PageRequest.of(0, limit))
+                .map(row -> SearchDocument.of(Kind.PROFESSOR, row))
+                .getContent();
+    }
+
+    @Override
+    public List<SearchDocument> classes(SearchQuery query, int limit) {
+        return classes.searchClasses(query.normalized(), query.qNoSpace(), PageRequest.of(0, limit))
+                .map(row -> SearchDocument.of(Kind.CLASS, row))
+                .getContent();
+    }
+
+    /**
+     * LIKE matches carry no relevance, so pages are ranked by rating count and keyed on (totalRatings, id).
+     */
+    @Override
+    public List<Scored> page(Kind kind, SearchQuery query, SearchCursor after, int limit) {
+        var first = PageRequest.of(0, limit);
+        int score = (int) after.score();   // saturates, so SearchCursor.FIRST becomes Integer.MAX_VALUE
+        var rows = kind == Kind.PROFESSOR
+                ? professors.searchProfessorsAfter(query.normalized(), query.slugCand(), score, after.id(), first)
+                : classes.searchClassesAfter(query.normalized(), query.qNoSpace(), score, after.id(), first);
+        return rows.stream()
+                .map(row -> SearchDocument.of(kind, row))
+                .map(doc -> new Scored(doc, doc.totalRatings()))
+                .toList();
+    }
+}
@@ -0,0 +1,45 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "search.backend", havingValue = "memory", matchIfMissing = true)
+public class MemorySearchBackend implements SearchBackend {
+
+    private final CatalogSearchIndex index;
+
+    @Override
+    public Optional<SearchDocument> professorBySlug(String slug) {
+        return index.findByKey(Kind.PROFESSOR, slug);
+    }
+
+    @Override
+    public List<SearchDocument> professors(SearchQuery query, int limit) {
+        return index.search(Kind.PROFESSOR, limit, doc -> SearchScorer.score(doc, query),
+                query.normalized(), query.slugCand());
+    }
+
+    @Override
+    public List<SearchDocument> classes(SearchQuery query, int limit) {
+        return index.search(Kind.CLASS, limit, doc -> SearchScorer.score(doc, query),
+                query.normalized(), query.qNoSpace());
+    }
+
+    @Override
+    public List<Scored> page(Kind kind, SearchQuery query, SearchCursor after, int limit) {
+        String alt = kind == Kind.PROFESSOR ? query.slugCand() : query.qNoSpace();
+        return index.page(kind, after, limit, doc -> SearchScorer.score(doc, query), query.normalized(), alt);
+    }
+
+    @Override
+    public boolean blocking() {
+        return false;
+    }
+}
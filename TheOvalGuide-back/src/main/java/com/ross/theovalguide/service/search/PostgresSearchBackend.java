@@ -0,0 +1,91 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Ranked full-text search on PostgreSQL: generated {@code search_tsv} columns with GIN indexes,
+ * results ordered by {@code ts_rank}. Every query word is matched as a prefix so partially typed
+ * words still hit.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "search.backend", havingValue = "postgres")
+public class PostgresSearchBackend implements SearchBackend {
+
+    private final ProfessorRepository professors;
+    private final CourseClassRepository classes;
+    private final DataSource dataSource;
+
+    /**
+     * Tables already exist here (the repositories need the EntityManagerFactory), so the generated
+     * columns and indexes can be added on top of Hibernate's schema. Every statement is idempotent.
+     */
+    @PostConstruct
+    void ensureSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/postgres-fulltext.sql")).execute(dataSource);
+    }
+
+    @Override
+    public Optional<SearchDocument> professorBySlug(String slug) {
+        return professors.findSearchRowBySlug(slug).map(row -> SearchDocument.of(Kind.PROFESSOR, row));
+    }
+
+    @Override
+    public List<SearchDocument> professors(SearchQuery query, int limit) {
+        String tsq = toPrefixQuery(query.normalized());
+        if (tsq.isEmpty()) return List.of();
+        return professors.fullTextSearch(tsq, limit).stream()
+                .map(row -> SearchDocument.of(Kind.PROFESSOR, row))
+                .toList();
+    }
+
+    @Override
+    public List<SearchDocument> classes(SearchQuery query, int limit) {
+        String tsq = toPrefixQuery(query.normalized());
+        if (tsq.isEmpty()) return List.of();
+        return classes.fullTextSearch(tsq, limit).stream()
+                .map(row -> SearchDocument.of(Kind.CLASS, row))
+                .toList();
+    }
+
+    /**
+     * Pages are ranked by ts_rank and keyed on (rank, id).
+     */
+    @Override
+    public List<Scored> page(Kind kind, SearchQuery query, SearchCursor after, int limit) {
+        String tsq = toPrefixQuery(query.normalized());
+        if (tsq.isEmpty()) return List.of();
+        var rows = kind == Kind.PROFESSOR
+                ? professors.fullTextSearchAfter(tsq, after.score(), after.id(), limit)
+                : classes.fullTextSearchAfter(tsq, after.score(), after.id(), limit);
+        return rows.stream()
+                .map(row -> new Scored(SearchDocument.of(kind, row), row.getScore()))
+                .toList();
+    }
+
+    /**
+     * "Data Struct" -> "data:* & struct:*". Only letters and digits survive, so the result is always
+     * valid to_tsquery input.
+     */
+    static String toPrefixQuery(String q) {
+        return Arrays.stream(q.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(t -> !t.isEmpty())
+                .map(t -> t + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,179 @@
+package com.ross.theovalguide.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Character trie over completion keys that returns the top-k documents under a prefix by score.
+ * <p>
+ * Every node caches the best score found in its subtree, so a completion is a best-first walk that
+ * stops as soon as k distinct documents have been popped; it never enumerates the whole subtree.
+ * Not thread-safe; {@link CatalogSearchIndex} guards it.
+ */
+final class PrefixTrie {
+
+    private final Node root = new Node();
+    private final Map<Integer, Integer> scores = new HashMap<>();   // ordinal -> score
+
+    void add(int doc, int score, Collection<String> keys) {
+        scores.put(doc, score);
+        for (String key : keys) {
+            insert(root, key, 0, doc);
+        }
+    }
+
+    void remove(int doc, Collection<String> keys) {
+        for (String key : keys) {
+            delete(root, key, 0, doc);
+        }
+        scores.remove(doc);
+    }
+
+    /**
+     * Changes a document's score in place; only the nodes on its key paths are touched.
+     */
+    void rescore(int doc, int score, Collection<String> keys) {
+        Integer old = scores.put(doc, score);
+        if (old != null && old == score) return;
+        for (String key : keys) {
+            refresh(root, key, 0);
+        }
+    }
+
+    /**
+     * Up to {@code k} distinct documents with a key starting with {@code prefix}, best score first.
+     */
+    List<Integer> complete(String prefix, int k) {
+        Node start = root;
+        for (int i = 0; i < prefix.length() && start != null; i++) {
+            start = start.child(prefix.charAt(i));
+        }
+        if (start == null || k <= 0) return List.of();
+
+        PriorityQueue<Candidate> frontier = new PriorityQueue<>((a, b) -> Integer.compare(b.score(), a.score()));
+        frontier.add(new Candidate(start.best, start, -1));
+
+        Set<Integer> out = new LinkedHashSet<>();
+        while (!frontier.isEmpty() && out.size() < k) {
+            Candidate top = frontier.poll();
+            if (top.node() == null) {
+                out.add(top.doc());
+                continue;
+            }
+            Node n = top.node();
+            for (int i = 0; i < n.docCount; i++) {
+                frontier.add(new Candidate(scores.get(n.docs[i]), null, n.docs[i]));
+            }
+            for (int i = 0; i < n.childCount; i++) {
+                frontier.add(new Candidate(n.kids[i].best, n.kids[i], -1));
+            }
+        }
+        return new ArrayList<>(out);
+    }
+
+    private void insert(Node n, String key, int i, int doc) {
+        if (i == key.length()) {
+            n.addDoc(doc);
+        } else {
+            insert(n.childOrCreate(key.charAt(i)), key, i + 1, doc);
+        }
+        n.recompute(scores);
+    }
+
+    private void delete(Node n, String key, int i, int doc) {
+        if (i == key.length()) {
+            n.removeDoc(doc);
+        } else {
+            Node next = n.child(key.charAt(i));
+            if (next == null) return;
+            delete(next, key, i + 1, doc);
+            if (next.docCount == 0 && next.childCount == 0) n.removeChild(key.charAt(i));
+        }
+        n.recompute(scores);
+    }
+
+    private void refresh(Node n, String key, int i) {
+        if (i < key.length()) {
+            Node next = n.child(key.charAt(i));
+            if (next == null) return;
+            refresh(next, key, i + 1);
+        }
+        n.recompute(scores);
+    }
+
+    /**
+     * Either a subtree still to expand ({@code node != null}) or a document ready to emit.
+     */
+    private record Candidate(int score, Node node, int doc) {
+    }
+
+    private static final class Node {
+        char[] labels = new char[0];
+        Node[] kids = new Node[0];
+        int childCount;
+        int[] docs = new int[0];     // documents whose key ends here
+        int docCount;
+        int best = Integer.MIN_VALUE; // max score in this subtree
+
+        Node child(char c) {
+            int at = Arrays.binarySearch(labels, 0, childCount, c);
+            return at >= 0 ? kids[at] : null;
+        }
+
+        Node childOrCreate(char c) {
+            int at = Arrays.binarySearch(labels, 0, childCount, c);
+            if (at >= 0) return kids[at];
+            int pos = -at - 1;
+            if (childCount == labels.length) {
+                int cap = Math.max(2, childCount * 2);
+                labels = Arrays.copyOf(labels, cap);
+                kids = Arrays.copyOf(kids, cap);
+            }
+            System.arraycopy(labels, pos, labels, pos + 1, childCount - pos);
+            System.arraycopy(kids, pos, kids, pos + 1, childCount - pos);
+            labels[pos] = c;
+            kids[pos] = new Node();
+            childCount++;
+            return kids[pos];
+        }
+
+        void removeChild(char c) {
+            int at = Arrays.binarySearch(labels, 0, childCount, c);
+            if (at < 0) return;
+            System.arraycopy(labels, at + 1, labels, at, childCount - at - 1);
+            System.arraycopy(kids, at + 1, kids, at, childCount - at - 1);
+            kids[--childCount] = null;
+        }
+
+        void addDoc(int doc) {
+            for (int i = 0; i < docCount; i++) {
+                if (docs[i] == doc) return;
+            }
+            if (docCount == docs.length) docs = Arrays.copyOf(docs, Math.max(1, docCount * 2));
+            docs[docCount++] = doc;
+        }
+
+        void removeDoc(int doc) {
+            for (int i = 0; i < docCount; i++) {
+                if (docs[i] == doc) {
+                    docs[i] = docs[--docCount];
+                    return;
+                }
+            }
+        }
+
+        void recompute(Map<Integer, Integer> scores) {
+            int max = Integer.MIN_VALUE;
+            for (int i = 0; i < docCount; i++) max = Math.max(max, scores.get(docs[i]));
+            for (int i = 0; i < childCount; i++) max = Math.max(max, kids[i].best);
+            best = max;
+        }
+    }
+}
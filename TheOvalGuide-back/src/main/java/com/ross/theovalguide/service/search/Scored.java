@@ -0,0 +1,38 @@
+package com.ross.theovalguide.service.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.UUID;
+
+/**
+ * A search candidate with its relevance score. {@link #ORDER} is worst-first, which is what a bounded
+ * min-heap top-k needs: poll() evicts the weakest entry once the heap grows past k.
+ */
+public record Scored(SearchDocument doc, double score) {
+
+    public static final Comparator<Scored> ORDER = Comparator.comparingDouble(Scored::score)
+            .thenComparing((a, b) -> compareIds(b.doc().id(), a.doc().id()));
+
+    /**
+     * Unsigned, byte-wise uuid order, i.e. how PostgreSQL and H2 sort uuid columns. {@link UUID#compareTo}
+     * compares signed longs and would disagree with keyset queries run in the database.
+     */
+    public static int compareIds(UUID a, UUID b) {
+        int c = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return c != 0 ? c : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    public static List<SearchDocument> drainBestFirst(PriorityQueue<Scored> heap) {
+        List<SearchDocument> out = new ArrayList<>(heap.size());
+        for (Scored s : sortBestFirst(heap)) out.add(s.doc());
+        return out;
+    }
+
+    public static List<Scored> sortBestFirst(PriorityQueue<Scored> heap) {
+        List<Scored> all = new ArrayList<>(heap);
+        all.sort(ORDER.reversed());
+        return all;
+    }
+}
@@ -0,0 +1,34 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Where {@code SearchService} gets its candidates from. Chosen with the {@code search.backend} property:
+ * {@code memory} (default, {@link CatalogSearchIndex}), {@code postgres} (tsvector + GIN, ts_rank order)
+ * or {@code like} (plain LIKE scans, works on H2).
+ */
+public interface SearchBackend {
+
+    Optional<SearchDocument> professorBySlug(String slug);
+
+    List<SearchDocument> professors(SearchQuery query, int limit);
+
+    List<SearchDocument> classes(SearchQuery query, int limit);
+
+    /**
+     * Up to {@code limit} matches of {@code kind} that rank after {@code after}, best first. Scores are
+     * backend-specific but stable across calls, so the last one can be handed back as the next cursor.
+     */
+    List<Scored> page(Kind kind, SearchQuery query, SearchCursor after, int limit);
+
+    /**
+     * Whether lookups do I/O. Blocking backends get their sub-queries fanned out on virtual threads;
+     * in-memory ones are cheaper to call inline.
+     */
+    default boolean blocking() {
+        return true;
+    }
+}
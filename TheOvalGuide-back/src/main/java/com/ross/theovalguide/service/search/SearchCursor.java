@@ -0,0 +1,54 @@
+package com.ross.theovalguide.service.search;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in a ranked result list: the score and id of the last item served. Results are
+ * ordered by score descending, then id ascending (unsigned, the order PostgreSQL and H2 use for uuid),
+ * so the next page is everything strictly below this pair.
+ * <p>
+ * Sent to clients as an opaque URL-safe token.
+ */
+public record SearchCursor(double score, UUID id) {
+
+    /**
+     * Sorts before every real result.
+     */
+    public static final SearchCursor FIRST = new SearchCursor(Double.MAX_VALUE, new UUID(0, 0));
+
+    private static final int BYTES = Double.BYTES + 2 * Long.BYTES;
+
+    public static SearchCursor after(Scored last) {
+        return new SearchCursor(last.score(), last.doc().id());
+    }
+
+    /**
+     * Whether a result with this score and id comes after the cursor.
+     */
+    public boolean admits(double score, UUID id) {
+        return score < this.score || (score == this.score && Scored.compareIds(id, this.id) > 0);
+    }
+
+    public String encode() {
+        ByteBuffer buf = ByteBuffer.allocate(BYTES)
+                .putDouble(score)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buf.array());
+    }
+
+    /**
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static SearchCursor decode(String token) {
+        if (token == null || token.isBlank()) return FIRST;
+        byte[] raw = Base64.getUrlDecoder().decode(token.trim());
+        if (raw.length != BYTES) throw new IllegalArgumentException("malformed cursor");
+        ByteBuffer buf = ByteBuffer.wrap(raw);
+        double score = buf.getDouble();
+        if (Double.isNaN(score)) throw new IllegalArgumentException("malformed cursor");
+        return new SearchCursor(score, new UUID(buf.getLong(), buf.getLong()));
+    }
+}
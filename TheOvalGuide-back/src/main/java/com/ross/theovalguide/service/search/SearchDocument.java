@@ -0,0 +1,157 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.DTOS.search.SearchItem;
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.repo.SearchRow;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Flat, immutable copy of the searchable columns of a professor or class.
+ * The in-memory search structures hold these instead of managed entities.
+ */
+public record SearchDocument(
+        Kind kind,
+        UUID id,
+        String key,          // slug for professors, code for classes
+        String title,        // professor name or class title
+        String department,
+        String university,
+        Double rating,       // overall for professors, difficulty for classes
+        int totalRatings,
+        Instant updatedAt
+) {
+
+    public enum Kind {
+        PROFESSOR("professor"),
+        CLASS("class");
+
+        private final String label;
+
+        Kind(String label) {
+            this.label = label;
+        }
+
+        public String label() {
+            return label;
+        }
+    }
+
+    public static SearchDocument of(Professor p) {
+        return new SearchDocument(
+                Kind.PROFESSOR,
+                p.getId(),
+                p.getSlug(),
+                p.getName(),
+                p.getDepartment(),
+                p.getUniversity(),
+                toDouble(p.getOverallRating()),
+                p.getTotalRatings(),
+                p.getUpdatedAt()
+        );
+    }
+
+    public static SearchDocument of(CourseClass c) {
+        return new SearchDocument(
+                Kind.CLASS,
+                c.getId(),
+                c.getCode(),
+                c.getTitle(),
+                c.getDepartment(),
+                c.getUniversity(),
+                toDouble(c.getDifficultyAvg()),
+                c.getTotalRatings(),
+                c.getUpdatedAt()
+        );
+    }
+
+    public static SearchDocument of(Kind kind, SearchRow row) {
+        return new SearchDocument(
+                kind,
+                row.getId(),
+                row.getSearchKey(),
+                row.getTitle(),
+                row.getDepartment(),
+                row.getUniversity(),
+                toDouble(row.getRating()),
+                row.getTotalRatings() == null ? 0 : row.getTotalRatings(),
+                row.getUpdatedAt()
+        );
+    }
+
+    /**
+     * Lower-cased text the index matches against. Mirrors the columns the LIKE queries in
+     * ProfessorRepository / CourseClassRepository look at, including the space-less class code.
+     */
+    public String[] searchFields() {
+        if (kind == Kind.PROFESSOR) {
+            return new String[]{lower(title), lower(department), lower(university), lower(key)};
+        }
+        return new String[]{lower(key), lower(key).replace(" ", ""), lower(title), lower(department), lower(university)};
+    }
+
+    /**
+     * Keys the typeahead trie completes on: the full name plus every later word of it (so "smi" finds
+     * "John Smith") and the slug for professors; the code with and without spaces for classes.
+     */
+    public Set<String> suggestKeys() {
+        Set<String> keys = new LinkedHashSet<>();
+        String k = lower(key);
+        if (kind == Kind.PROFESSOR) {
+            String name = lower(title).trim();
+            if (!name.isEmpty()) keys.add(name);
+            for (int i = name.indexOf(' '); i >= 0; i = name.indexOf(' ', i + 1)) {
+                String rest = name.substring(i + 1).trim();
+                if (!rest.isEmpty()) keys.add(rest);
+            }
+            if (!k.isEmpty()) keys.add(k);
+        } else if (!k.isEmpty()) {
+            keys.add(k);
+            keys.add(k.replace(" ", ""));
+        }
+        return keys;
+    }
+
+    /**
+     * Terms the typo-tolerant lookup compares against: each name word of 3+ letters and the slug for
+     * professors, the space-less code for classes.
+     */
+    public Set<String> fuzzyTerms() {
+        Set<String> terms = new LinkedHashSet<>();
+        String k = lower(key);
+        if (kind == Kind.PROFESSOR) {
+            for (String word : lower(title).split("[^\\p{L}\\p{N}]+")) {
+                if (word.length() >= 3) terms.add(word);
+            }
+            if (!k.isEmpty()) terms.add(k);
+        } else if (!k.isEmpty()) {
+            terms.add(k.replace(" ", ""));
+        }
+        return terms;
+    }
+
+    public SearchItem toSearchItem() {
+        return new SearchItem(
+                kind.label(),
+                key,
+                kind == Kind.PROFESSOR ? title : key + " — " + title,
+                department + " — " + university,
+                kind == Kind.PROFESSOR ? rating : null,
+                kind == Kind.CLASS ? rating : null
+        );
+    }
+
+    static String lower(String s) {
+        return s == null ? "" : s.toLowerCase(Locale.ROOT);
+    }
+
+    private static Double toDouble(BigDecimal value) {
+        return value == null ? null : value.doubleValue();
+    }
+}
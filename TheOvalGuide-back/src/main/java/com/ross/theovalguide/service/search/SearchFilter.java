@@ -0,0 +1,36 @@
+package com.ross.theovalguide.service.search;
+
+/**
+ * Optional /api/search filters. {@code minRating} applies to professors' overall rating and
+ * {@code minDifficulty} to classes' average difficulty; once either threshold is set, only the kinds
+ * that have a threshold are returned. Unrated rows never pass a threshold.
+ */
+public record SearchFilter(String university, String department, Double minRating, Double minDifficulty) {
+
+    public static final SearchFilter NONE = new SearchFilter(null, null, null, null);
+
+    public boolean isEmpty() {
+        return isBlank(university) && isBlank(department) && minRating == null && minDifficulty == null;
+    }
+
+    boolean hasUniversity() {
+        return !isBlank(university);
+    }
+
+    boolean hasDepartment() {
+        return !isBlank(department);
+    }
+
+    /**
+     * Whether {@code doc} passes the rating/difficulty thresholds.
+     */
+    boolean admitsRating(SearchDocument doc) {
+        if (minRating == null && minDifficulty == null) return true;
+        Double min = doc.kind() == SearchDocument.Kind.PROFESSOR ? minRating : minDifficulty;
+        return min != null && doc.rating() != null && doc.rating() >= min;
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+}
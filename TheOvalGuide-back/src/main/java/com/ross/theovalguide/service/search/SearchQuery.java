@@ -0,0 +1,27 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.util.SlugUtil;
+
+import java.util.Optional;
+
+/**
+ * Normalized forms of a user query, shared by every search backend.
+ *
+ * @param normalized query with a leading academic title ("Dr.", "Prof.") removed
+ * @param qNoSpace   normalized without spaces, for "CS2201" vs "CS 2201"
+ * @param slugCand   slug form, for exact professor slug hits
+ */
+public record SearchQuery(String normalized, String qNoSpace, String slugCand) {
+
+    public static SearchQuery parse(String raw) {
+        String trimmed = raw == null ? "" : raw.trim();
+        String normalized = trimmed.replaceFirst("(?i)^(dr\\.?|prof\\.?|professor)\\s+", "").trim();
+        String qNoSpace = normalized.replace(" ", "");
+        String slugCand = Optional.ofNullable(SlugUtil.toSlug(normalized)).orElse(normalized);
+        return new SearchQuery(normalized, qNoSpace, slugCand);
+    }
+
+    public boolean isEmpty() {
+        return normalized.isEmpty();
+    }
+}
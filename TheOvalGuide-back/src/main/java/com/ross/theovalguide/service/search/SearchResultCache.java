@@ -0,0 +1,107 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.DTOS.search.SearchResponse;
+import com.ross.theovalguide.util.BoundedTtlCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of complete /api/search responses keyed on the normalized query.
+ * <p>
+ * Invalidated from {@link CatalogChangedEvent}s after commit: an updated professor or class (e.g. new
+ * rating aggregates from {@code ReviewService}) evicts every entry that shows it, a created or removed one
+ * (e.g. a class auto-created by {@code ReviewController}) could change any result list, so it clears the
+ * cache. Popularity shifts of rows outside a cached list are only picked up when the entry expires.
+ * <p>
+ * Publishes {@code cache.gets{result=hit|miss}}, {@code cache.evictions} and {@code cache.size}
+ * tagged {@code cache=search}.
+ */
+@Component
+public class SearchResultCache {
+
+    private final BoundedTtlCache<Key, Entry> cache;
+
+    // bumped on every invalidation; a search that started before one must not store its result
+    private final AtomicLong generation = new AtomicLong();
+
+    public SearchResultCache(@Value("${search.cache.max-entries:10000}") int maxEntries,
+                             @Value("${search.cache.ttl-ms:60000}") long ttlMs,
+                             MeterRegistry meters) {
+        this.cache = new BoundedTtlCache<>(maxEntries, TimeUnit.MILLISECONDS.toNanos(ttlMs));
+
+        FunctionCounter.builder("cache.gets", cache, BoundedTtlCache::hits)
+                .tags("cache", "search", "result", "hit").register(meters);
+        FunctionCounter.builder("cache.gets", cache, BoundedTtlCache::misses)
+                .tags("cache", "search", "result", "miss").register(meters);
+        FunctionCounter.builder("cache.evictions", cache, BoundedTtlCache::evictions)
+                .tags("cache", "search").register(meters);
+        Gauge.builder("cache.size", cache, BoundedTtlCache::size)
+                .tags("cache", "search").register(meters);
+    }
+
+    public record Key(String normalized, String qNoSpace, String slugCand, int cap) {
+
+        public static Key of(SearchQuery query, int cap) {
+            return new Key(query.normalized().toLowerCase(Locale.ROOT),
+                    query.qNoSpace().toLowerCase(Locale.ROOT),
+                    query.slugCand(), cap);
+        }
+    }
+
+    public Optional<SearchResponse> get(Key key) {
+        Entry e = cache.get(key);
+        return e == null ? Optional.empty() : Optional.of(e.response());
+    }
+
+    /**
+     * Read before running the search and pass to {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Stores a response built from {@code docs}, unless the catalog changed since {@code generation}.
+     */
+    public void put(Key key, long generation, SearchResponse response, Collection<SearchDocument> docs) {
+        if (this.generation.get() != generation) return;
+        Set<UUID> ids = docs.stream().map(SearchDocument::id).collect(Collectors.toUnmodifiableSet());
+        cache.put(key, new Entry(response, ids));
+        // an invalidation may have slipped in between the check and the put
+        if (this.generation.get() != generation) cache.remove(key);
+    }
+
+    // after CatalogSearchIndex has applied the same event, so a refill cannot read the old index
+    @Order(1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        generation.incrementAndGet();
+        if (event.change() == CatalogChangedEvent.Change.UPDATED) {
+            UUID id = event.document().id();
+            cache.removeIf((key, entry) -> entry.ids().contains(id));
+        } else {
+            cache.clear();
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private record Entry(SearchResponse response, Set<UUID> ids) {
+    }
+}
@@ -0,0 +1,77 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+
+/**
+ * Relevance score used to merge professor and class candidates into one ranked list.
+ * <p>
+ * Signals, strongest first: exact slug/code/name match, prefix match on the name or code, share of
+ * query words found in a field (weighted by which field), then popularity as a tie-breaker that
+ * grows with log(totalRatings) so heavily rated entries cannot drown out better text matches.
+ */
+public final class SearchScorer {
+
+    static final double EXACT = 100;
+    static final double PREFIX = 40;
+    static final double TOKEN = 30;
+    static final double POPULARITY = 3;
+
+    // field weights for word matches
+    static final double NAME_WEIGHT = 1.0;
+    static final double KEY_WEIGHT = 0.9;
+    static final double DEPARTMENT_WEIGHT = 0.4;
+    static final double UNIVERSITY_WEIGHT = 0.2;
+
+    private SearchScorer() {
+    }
+
+    public static double score(SearchDocument doc, SearchQuery query) {
+        String needle = SearchDocument.lower(query.normalized());
+        String needleNoSpace = SearchDocument.lower(query.qNoSpace());
+        String name = SearchDocument.lower(doc.title());
+        String key = SearchDocument.lower(doc.key());
+        String keyNoSpace = key.replace(" ", "");
+
+        double score = 0;
+
+        boolean exact = doc.kind() == Kind.PROFESSOR
+                ? key.equals(SearchDocument.lower(query.slugCand())) || name.equals(needle)
+                : keyNoSpace.equals(needleNoSpace);
+        if (exact) score += EXACT;
+
+        if (name.startsWith(needle) || key.startsWith(needle) || keyNoSpace.startsWith(needleNoSpace)) {
+            score += PREFIX;
+        }
+
+        String[] words = needle.split("[^\\p{L}\\p{N}]+");
+        double best = Math.max(
+                Math.max(NAME_WEIGHT * coverage(words, name), KEY_WEIGHT * coverage(words, key)),
+                Math.max(DEPARTMENT_WEIGHT * coverage(words, SearchDocument.lower(doc.department())),
+                        UNIVERSITY_WEIGHT * coverage(words, SearchDocument.lower(doc.university()))));
+        score += TOKEN * best;
+
+        score += POPULARITY * Math.log1p(Math.max(0, doc.totalRatings()));
+        return score;
+    }
+
+    /**
+     * Share of query words that start some word of {@code field}.
+     */
+    private static double coverage(String[] queryWords, String field) {
+        if (field.isEmpty()) return 0;
+        String[] fieldWords = field.split("[^\\p{L}\\p{N}]+");
+        int total = 0;
+        int hit = 0;
+        for (String q : queryWords) {
+            if (q.isEmpty()) continue;
+            total++;
+            for (String f : fieldWords) {
+                if (f.startsWith(q)) {
+                    hit++;
+                    break;
+                }
+            }
+        }
+        return total == 0 ? 0 : (double) hit / total;
+    }
+}
@@ -0,0 +1,79 @@
+package com.ross.theovalguide.service.search;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverted index from character trigrams to document ordinals.
+ * <p>
+ * A substring query of length >= 3 can only match documents that contain every trigram of the query,
+ * so intersecting the posting lists gives a small candidate set that the caller then verifies.
+ * Not thread-safe; {@link CatalogSearchIndex} guards it.
+ */
+final class TrigramIndex {
+
+    private final Map<Long, RoaringBitmap> postings = new HashMap<>();
+
+    void add(int doc, String[] fields) {
+        for (long gram : trigrams(fields)) {
+            postings.computeIfAbsent(gram, g -> new RoaringBitmap()).add(doc);
+        }
+    }
+
+    void remove(int doc, String[] fields) {
+        for (long gram : trigrams(fields)) {
+            RoaringBitmap docs = postings.get(gram);
+            if (docs == null) continue;
+            docs.remove(doc);
+            if (docs.isEmpty()) postings.remove(gram);
+        }
+    }
+
+    /**
+     * Documents that contain every trigram of {@code needle}, or {@code null} when the needle is too short
+     * to be answered from the index (caller has to scan).
+     */
+    RoaringBitmap candidates(String needle) {
+        if (needle.length() < 3) return null;
+
+        List<RoaringBitmap> lists = new ArrayList<>();
+        for (long gram : trigrams(new String[]{needle})) {
+            RoaringBitmap docs = postings.get(gram);
+            if (docs == null) return new RoaringBitmap();
+            lists.add(docs);
+        }
+        // smallest first keeps the running intersection small
+        lists.sort(Comparator.comparingInt(RoaringBitmap::getCardinality));
+        RoaringBitmap out = lists.get(0).clone();
+        for (int i = 1; i < lists.size() && !out.isEmpty(); i++) {
+            out.and(lists.get(i));
+        }
+        return out;
+    }
+
+    int size() {
+        return postings.size();
+    }
+
+    private static Set<Long> trigrams(String[] fields) {
+        Set<Long> out = new HashSet<>();
+        for (String f : fields) {
+            if (f == null) continue;
+            for (int i = 0; i + 3 <= f.length(); i++) {
+                out.add(pack(f.charAt(i), f.charAt(i + 1), f.charAt(i + 2)));
+            }
+        }
+        return out;
+    }
+
+    private static long pack(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+}
@@ -0,0 +1,108 @@
+package com.ross.theovalguide.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.LongSupplier;
+
+/**
+ * Small thread-safe LRU cache whose entries also expire a fixed time after they were written.
+ * Keeps hit/miss/eviction counts so callers can publish them as metrics.
+ */
+public final class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final LongSupplier clock;
+    private final LinkedHashMap<K, Timed<V>> map;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedTtlCache(int maxEntries, long ttlNanos) {
+        this(maxEntries, ttlNanos, System::nanoTime);
+    }
+
+    public BoundedTtlCache(int maxEntries, long ttlNanos, LongSupplier clock) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be >= 1");
+        this.maxEntries = maxEntries;
+        this.ttlNanos = ttlNanos;
+        this.clock = clock;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Timed<V>> eldest) {
+                if (size() <= BoundedTtlCache.this.maxEntries) return false;
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * The cached value, or {@code null} when absent or expired.
+     */
+    public synchronized V get(K key) {
+        Timed<V> t = map.get(key);
+        if (t != null && clock.getAsLong() - t.writtenAt() >= ttlNanos) {
+            map.remove(key);
+            evictions.increment();
+            t = null;
+        }
+        if (t == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return t.value();
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Timed<>(value, clock.getAsLong()));
+    }
+
+    public synchronized V remove(K key) {
+        Timed<V> t = map.remove(key);
+        return t == null ? null : t.value();
+    }
+
+    public synchronized int removeIf(BiPredicate<? super K, ? super V> stale) {
+        int removed = 0;
+        for (Iterator<Map.Entry<K, Timed<V>>> it = map.entrySet().iterator(); it.hasNext(); ) {
+            var e = it.next();
+            if (stale.test(e.getKey(), e.getValue().value())) {
+                it.remove();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * Entries dropped for size or age; explicit removals are not counted.
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    private record Timed<V>(V value, long writtenAt) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.ross.theovalguide.util;
+
+import java.util.Locale;
+
+public final class ClassCodeUtil {
+    private ClassCodeUtil() {
+    }
+
+    /**
+     * Canonical form of a class code: upper-case, no whitespace ("cs 2201", "CS2201" -> "CS2201").
+     * Stored in classes.code_normalized and used as the key of ClassCodeResolver.
+     */
+    public static String normalize(String code) {
+        if (code == null) return null;
+        String out = code.replaceAll("\\s+", "").toUpperCase(Locale.ROOT);
+        return out.isEmpty() ? null : out;
+    }
+}
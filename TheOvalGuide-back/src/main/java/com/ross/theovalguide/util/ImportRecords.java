@@ -0,0 +1,106 @@
+package com.ross.theovalguide.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams the records of an import file, CSV with a header row or NDJSON (one object per line), as
+ * field maps keyed by {@link #key} so "professor_slug", "professorSlug" and "Professor Slug" all match.
+ */
+public final class ImportRecords {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private ImportRecords() {
+    }
+
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * {@code .csv} is CSV, anything else NDJSON.
+         */
+        public static Format of(Path file) {
+            return file.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : NDJSON;
+        }
+    }
+
+    public interface Sink {
+        void record(int line, Map<String, String> fields);
+
+        void malformed(int line);
+    }
+
+    public static void read(Reader in, Format format, Sink sink) throws IOException {
+        var reader = in instanceof BufferedReader b ? b : new BufferedReader(in, 1 << 16);
+        if (format == Format.CSV) readCsv(reader, sink);
+        else readNdjson(reader, sink);
+    }
+
+    public static String key(String name) {
+        return name.replaceAll("[\\s_]", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resets the heap pools' peak usage, so {@link #peakHeapBytes()} reports the peak of one import.
+     */
+    public static void resetPeakHeap() {
+        heapPools().forEach(MemoryPoolMXBean::resetPeakUsage);
+    }
+
+    // summed over the pools, each at its own peak: an upper bound
+    public static long peakHeapBytes() {
+        return heapPools().stream().mapToLong(p -> p.getPeakUsage().getUsed()).sum();
+    }
+
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream().filter(p -> p.getType() == MemoryType.HEAP).toList();
+    }
+
+    private static void readCsv(BufferedReader in, Sink sink) throws IOException {
+        var csv = new CsvReader(in);
+        List<String> header = csv.next();
+        if (header == null) return;
+        List<String> keys = header.stream().map(ImportRecords::key).toList();
+        List<String> record;
+        while (true) {
+            int line = csv.line();
+            if ((record = csv.next()) == null) break;
+            if (record.size() == 1 && record.get(0).isBlank()) continue;
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < keys.size() && i < record.size(); i++) fields.put(keys.get(i), record.get(i));
+            sink.record(line, fields);
+        }
+    }
+
+    private static void readNdjson(BufferedReader in, Sink sink) throws IOException {
+        String text;
+        int line = 0;
+        while ((text = in.readLine()) != null) {
+            line++;
+            if (text.isBlank()) continue;
+            Map<String, String> fields = new HashMap<>();
+            try {
+                JsonNode node = JSON.readTree(text);
+                node.fields().forEachRemaining(e -> {
+                    if (!e.getValue().isNull()) fields.put(key(e.getKey()), e.getValue().asText());
+                });
+            } catch (IOException e) {
+                sink.malformed(line);
+                continue;
+            }
+            sink.record(line, fields);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+-- Full-text search columns for search.backend=postgres.
+-- Generated columns keep themselves in sync with the row; Hibernate never maps them.
+-- Weights: A = name/code, B = title/department, C = university, D = slug.
+
+alter table professors add column if not exists search_tsv tsvector
+    generated always as (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(department, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(university, '')), 'C') ||
+        setweight(to_tsvector('simple', replace(coalesce(slug, ''), '-', ' ')), 'D')
+    ) stored;
+
+create index if not exists ix_professors_search_tsv on professors using gin (search_tsv);
+
+alter table classes add column if not exists search_tsv tsvector
+    generated always as (
+        setweight(to_tsvector('simple', coalesce(code, '') || ' ' || replace(coalesce(code, ''), ' ', '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(title, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(department, '')), 'B') ||
+        setweight(to_tsvector('simple', coalesce(university, '')), 'C')
+    ) stored;
+
+create index if not exists ix_classes_search_tsv on classes using gin (search_tsv);
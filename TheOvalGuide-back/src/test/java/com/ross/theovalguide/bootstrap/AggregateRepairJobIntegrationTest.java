@@ -0,0 +1,170 @@
+package com.ross.theovalguide.bootstrap;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.model.Tag;
+import com.ross.theovalguide.model.TagCount;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.repo.TagCountRepository;
+import com.ross.theovalguide.service.ReviewService;
+import com.ross.theovalguide.service.page.PageReadModel;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// one row per chunk, so the chunks really run on the pool
+@SpringBootTest(properties = {"reviews.aggregate-repair.chunk-size=1", "reviews.aggregate-repair.threads=2"})
+@ActiveProfiles("test")
+class AggregateRepairJobIntegrationTest {
+
+    @Autowired
+    private AggregateRepairJob job;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ProfessorRepository professors;
+
+    @Autowired
+    private CourseClassRepository classes;
+
+    @Autowired
+    private TagCountRepository tagCounts;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Autowired
+    private PageReadModel pages;
+
+    private final List<UUID> profIds = new ArrayList<>();
+    private final List<UUID> classIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        tx.executeWithoutResult(s -> {
+            for (int i = 0; i < 3; i++) {
+                var prof = new Professor();
+                prof.setName("Professor " + i);
+                prof.setSlug("professor-" + i);
+                prof.setDepartment("Physics");
+                prof.setUniversity("Ohio State");
+                em.persist(prof);
+                profIds.add(prof.getId());
+
+                var course = new CourseClass();
+                course.setCode("PHYS 11" + i);
+                course.setTitle("Mechanics " + i);
+                course.setDepartment("Physics");
+                course.setUniversity("Ohio State");
+                em.persist(course);
+                classIds.add(course.getId());
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            reviewService.createOrUpdate(review(i, 5, 2));
+            reviewService.createOrUpdate(review(i, 2, null));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(s -> {
+            for (String entity : new String[]{"TagCount", "ReviewTag", "Tag", "Review", "CourseClass", "Professor"}) {
+                em.createQuery("delete from " + entity).executeUpdate();
+            }
+        });
+        pages.clear();
+    }
+
+    @Test
+    void repairsOnlyTheRowsThatDrifted() {
+        assertThat(job.repairAll().professorsDrifted()).isZero();
+
+        tx.executeWithoutResult(s -> {
+            em.createQuery("update Professor p set p.totalRatings = 7, p.overallRating = 1.00 where p.id = :id")
+                    .setParameter("id", profIds.get(0)).executeUpdate();
+            em.createQuery("update Professor p set p.ratingCount5 = 0 where p.id = :id")
+                    .setParameter("id", profIds.get(1)).executeUpdate();
+            em.createQuery("update CourseClass c set c.difficultyAvg = 4.00, c.difficultyCount = 2 where c.id = :id")
+                    .setParameter("id", classIds.get(2)).executeUpdate();
+        });
+
+        var report = job.repairAll();
+
+        assertThat(report.professors()).isEqualTo(3);
+        assertThat(report.professorsDrifted()).isEqualTo(2);
+        assertThat(report.professorsRepaired()).isEqualTo(2);
+        assertThat(report.classes()).isEqualTo(3);
+        assertThat(report.classesDrifted()).isEqualTo(1);
+
+        var prof = professors.findById(profIds.get(0)).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(2);
+        assertThat(prof.getOverallRating()).isEqualByComparingTo(new BigDecimal("3.50"));
+        assertThat(professors.findById(profIds.get(1)).orElseThrow().getRatingCount5()).isEqualTo(1);
+        var course = classes.findById(classIds.get(2)).orElseThrow();
+        assertThat(course.getDifficultyCount()).isEqualTo(1);
+        assertThat(course.getDifficultyAvg()).isEqualByComparingTo(new BigDecimal("2.00"));
+
+        assertThat(job.repairAll().professorsDrifted() + job.repairAll().classesDrifted()).isZero();
+    }
+
+    @Test
+    void repairsDriftedTagCountersChunkByChunk() {
+        UUID tagId = tx.execute(s -> {
+            var tag = new Tag();
+            tag.setLabel("clear lectures");
+            em.persist(tag);
+            return tag.getId();
+        });
+        reviewService.createOrUpdate(review(0, 4, 3), List.of(tagId));
+        assertThat(job.repairAll().tagCounters()).isZero();
+
+        tx.executeWithoutResult(s -> {
+            em.createNativeQuery("update tag_counts set review_count = 9 where subject_id = :id")
+                    .setParameter("id", profIds.get(0)).executeUpdate();
+            em.createNativeQuery("delete from tag_counts where subject_id = :id")
+                    .setParameter("id", classIds.get(0)).executeUpdate();
+            em.createNativeQuery("insert into tag_counts (subject_id, tag_id, review_count) values (:s, :t, 4)")
+                    .setParameter("s", profIds.get(1)).setParameter("t", tagId).executeUpdate();
+        });
+
+        assertThat(job.repairAll().tagCounters()).isEqualTo(3);
+
+        assertThat(count(profIds.get(0), tagId)).isEqualTo(1);
+        assertThat(count(classIds.get(0), tagId)).isEqualTo(1);
+        assertThat(count(profIds.get(1), tagId)).isZero();
+        assertThat(job.repairAll().tagCounters()).isZero();
+    }
+
+    private long count(UUID subjectId, UUID tagId) {
+        return tagCounts.findById(new TagCount.Key(subjectId, tagId)).orElseThrow().getReviewCount();
+    }
+
+    private Review review(int i, int rating, Integer difficulty) {
+        var r = new Review();
+        r.setProfessor(em.getReference(Professor.class, profIds.get(i)));
+        r.setCourseClass(em.getReference(CourseClass.class, classIds.get(i)));
+        r.setRating(rating);
+        r.setDifficulty(difficulty);
+        return r;
+    }
+}
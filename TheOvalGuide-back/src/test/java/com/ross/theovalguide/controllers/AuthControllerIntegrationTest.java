@@ -5,6 +5,7 @@ import com.ross.theovalguide.repo.PasswordResetTokenRepository;
 import com.ross.theovalguide.repo.SessionTokenRepository;
 import com.ross.theovalguide.repo.UserRepository;
 import com.ross.theovalguide.service.AuthService;
+import jakarta.servlet.http.Cookie;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -137,6 +138,34 @@ class AuthControllerIntegrationTest {
         assertThat(sessionTokenRepository.findAllByUser(user)).hasSize(1);
     }
 
+    @Test
+    void sessionCookieAuthenticatesUntilThePasswordChanges() throws Exception {
+        registerUser("student", "student@example.com", "student@osu.edu", INITIAL_PASSWORD);
+        Cookie session = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(loginPayload("student", INITIAL_PASSWORD)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getCookie(AuthController.AUTH_COOKIE_NAME);
+
+        // authenticated: the empty review is rejected by the controller, not by security
+        mockMvc.perform(post("/api/reviews").cookie(session)
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(post("/api/reviews").cookie(new Cookie(AuthController.AUTH_COOKIE_NAME, "forged"))
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isForbidden());
+
+        String resetToken = authService.initiatePasswordReset("student@example.com").orElseThrow();
+        mockMvc.perform(post("/auth/update-password")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(updatePasswordPayload(UPDATED_PASSWORD, resetToken)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/reviews").cookie(session)
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isForbidden());
+    }
+
     private void registerUser(String username, String email, String schoolEmail, String password) throws Exception {
         mockMvc.perform(post("/auth/register")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,206 @@
+package com.ross.theovalguide.controllers;
+
+import com.ross.theovalguide.model.Advice;
+import com.ross.theovalguide.model.ClassProfessor;
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Note;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.model.Tag;
+import com.ross.theovalguide.model.UserAccount;
+import com.ross.theovalguide.service.ReviewService;
+import com.ross.theovalguide.service.page.PageReadModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ClassControllerIntegrationTest {
+
+    // class lookup (difficulty buckets are stored on it), professors, top tag counters, advice + authors, notes + count,
+    // first review page + its tags
+    private static final long QUERIES_PER_PAGE = 7;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Autowired
+    private PageReadModel pages;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @BeforeEach
+    void seed() {
+        tx.executeWithoutResult(s -> {
+            var course = new CourseClass();
+            course.setCode("CS 2201");
+            course.setTitle("Data Structures");
+            course.setDepartment("Computer Science");
+            course.setUniversity("Ohio State");
+            em.persist(course);
+
+            var prof = new Professor();
+            prof.setName("Ada Byron");
+            prof.setSlug("ada-byron");
+            prof.setDepartment("Computer Science");
+            prof.setUniversity("Ohio State");
+            em.persist(prof);
+
+            var link = new ClassProfessor();
+            link.setCourseClass(course);
+            link.setProfessor(prof);
+            em.persist(link);
+
+            var tag = new Tag();
+            tag.setLabel("tough grader");
+            em.persist(tag);
+
+            for (int i = 0; i < 4; i++) {
+                var user = new UserAccount();
+                user.setUsername("student" + i);
+                user.setEmail("student" + i + "@example.edu");
+                user.setPasswordHash("x");
+                em.persist(user);
+
+                var review = new Review();
+                review.setCourseClass(course);
+                review.setRating(4);
+                review.setDifficulty(i + 1);
+                em.persist(review);
+                reviewService.addTags(review, List.of(tag.getId()));
+
+                var advice = new Advice();
+                advice.setCourseClass(course);
+                advice.setUser(user);
+                advice.setText("Start the projects early " + i);
+                em.persist(advice);
+
+                for (int n = 0; n < 2; n++) {
+                    var note = new Note();
+                    note.setCourseClass(course);
+                    note.setUser(user);
+                    note.setFileUrl("https://files.example.edu/notes/week-" + i + "-" + n + ".pdf");
+                    em.persist(note);
+                }
+            }
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(s -> {
+            for (String entity : new String[]{"TagCount", "ReviewTag", "Tag", "Review", "Advice", "Note", "ClassProfessor",
+                    "CourseClass", "Professor", "UserAccount"}) {
+                em.createQuery("delete from " + entity).executeUpdate();
+            }
+        });
+        pages.clear();   // bulk deletes skip the entity listeners
+    }
+
+    @Test
+    void classPageIsBuiltInAFixedNumberOfQueries() throws Exception {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        mockMvc.perform(get("/api/classes/cs2201"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.code").value("CS 2201"))
+                .andExpect(jsonPath("$.difficultyBuckets", hasSize(5)))
+                .andExpect(jsonPath("$.professors[0].slug").value("ada-byron"))
+                .andExpect(jsonPath("$.tags[0].label").value("TOUGH GRADER"))
+                .andExpect(jsonPath("$.advices", hasSize(4)))
+                .andExpect(jsonPath("$.advices[*].author").value(everyItem(startsWith("student"))))
+                .andExpect(jsonPath("$.notes", hasSize(8)))
+                .andExpect(jsonPath("$.notesPreview.count").value(8))
+                .andExpect(jsonPath("$.notesPreview.samples", hasSize(5)))
+                .andExpect(jsonPath("$.reviews", hasSize(4)))
+                .andExpect(jsonPath("$.reviews[0].tags[0]").value("TOUGH GRADER"))
+                .andExpect(jsonPath("$.reviewsNextCursor").doesNotExist());
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(QUERIES_PER_PAGE);
+    }
+
+    @Test
+    void repeatReadsAreServedFromTheReadModelUntilAWriteTouchesThePage() throws Exception {
+        mockMvc.perform(get("/api/classes/CS 2201")).andExpect(status().isOk());
+
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+        mockMvc.perform(get("/api/classes/cs2201"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.advices", hasSize(4)));
+        assertThat(stats.getPrepareStatementCount()).isZero();
+
+        tx.executeWithoutResult(s -> {
+            var course = em.createQuery("select c from CourseClass c", CourseClass.class).getSingleResult();
+            var user = em.createQuery("select u from UserAccount u where u.username = 'student0'", UserAccount.class)
+                    .getSingleResult();
+            var advice = new Advice();
+            advice.setCourseClass(course);
+            advice.setUser(user);
+            advice.setText("Go to office hours");
+            em.persist(advice);
+        });
+
+        mockMvc.perform(get("/api/classes/cs2201"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.advices", hasSize(5)));
+    }
+
+    @Test
+    void duplicateLeftUnsetByTheBackfillSurvivesLaterEdits() {
+        // what ClassCodeBackfillRunner leaves behind for a second spelling of an existing code
+        var id = tx.execute(s -> {
+            var dup = new CourseClass();
+            dup.setCode("CS 2201-OLD");
+            dup.setTitle("Data Structures (old)");
+            dup.setDepartment("Computer Science");
+            dup.setUniversity("Ohio State");
+            em.persist(dup);
+            em.flush();
+            em.createNativeQuery("update classes set code = 'cs2201', code_normalized = null where id = :id")
+                    .setParameter("id", dup.getId()).executeUpdate();
+            return dup.getId();
+        });
+
+        tx.executeWithoutResult(s -> em.find(CourseClass.class, id).setTitle("Data Structures (archived)"));
+        String unset = tx.execute(s -> em.find(CourseClass.class, id).getCodeNormalized());
+        assertThat(unset).isNull();
+
+        tx.executeWithoutResult(s -> em.find(CourseClass.class, id).setCode("CS 2202"));
+        String renamed = tx.execute(s -> em.find(CourseClass.class, id).getCodeNormalized());
+        assertThat(renamed).isEqualTo("CS2202");
+    }
+}
@@ -0,0 +1,178 @@
+package com.ross.theovalguide.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.model.Tag;
+import com.ross.theovalguide.model.UserAccount;
+import com.ross.theovalguide.service.ReviewService;
+import com.ross.theovalguide.service.page.PageReadModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProfessorControllerIntegrationTest {
+
+    // professor lookup (rating buckets are stored on it), top tag counters, reviews + classes + authors, tags of those reviews
+    private static final long QUERIES_PER_PAGE = 4;
+    private static final int REVIEWS = 12;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Autowired
+    private PageReadModel pages;
+
+    @Autowired
+    private ObjectMapper json;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @BeforeEach
+    void seed() {
+        tx.executeWithoutResult(s -> {
+            var prof = new Professor();
+            prof.setName("Grace Hopper");
+            prof.setSlug("grace-hopper");
+            prof.setDepartment("Computer Science");
+            prof.setUniversity("Ohio State");
+            em.persist(prof);
+
+            var course = new CourseClass();
+            course.setCode("CSE 2221");
+            course.setTitle("Software I");
+            course.setDepartment("Computer Science");
+            course.setUniversity("Ohio State");
+            em.persist(course);
+
+            var clear = new Tag();
+            clear.setLabel("clear lectures");
+            em.persist(clear);
+            var heavy = new Tag();
+            heavy.setLabel("lots of homework");
+            em.persist(heavy);
+
+            for (int i = 0; i < REVIEWS; i++) {
+                var user = new UserAccount();
+                user.setUsername("reviewer" + i);
+                user.setEmail("reviewer" + i + "@example.edu");
+                user.setPasswordHash("x");
+                em.persist(user);
+
+                var review = new Review();
+                review.setProfessor(prof);
+                review.setCourseClass(course);
+                review.setUser(user);
+                review.setRating(i % 5 + 1);
+                review.setComment("Review " + i);
+                em.persist(review);
+                reviewService.addTags(review, i % 2 == 0 ? List.of(clear.getId(), heavy.getId()) : List.of(heavy.getId()));
+            }
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(s -> {
+            for (String entity : new String[]{"TagCount", "ReviewTag", "Tag", "Review", "CourseClass", "Professor", "UserAccount"}) {
+                em.createQuery("delete from " + entity).executeUpdate();
+            }
+        });
+        pages.clear();   // bulk deletes skip the entity listeners
+    }
+
+    @Test
+    void professorPageIsBuiltInAFixedNumberOfQueries() throws Exception {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+
+        mockMvc.perform(get("/api/professors/grace-hopper"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Grace Hopper"))
+                .andExpect(jsonPath("$.buckets", hasSize(5)))
+                .andExpect(jsonPath("$.tags[*].label", contains("LOTS OF HOMEWORK", "CLEAR LECTURES")))
+                .andExpect(jsonPath("$.reviews", hasSize(REVIEWS)))
+                .andExpect(jsonPath("$.reviews[*].author").value(everyItem(startsWith("reviewer"))))
+                .andExpect(jsonPath("$.reviews[*].course").value(everyItem(startsWith("CSE 2221"))))
+                .andExpect(jsonPath("$.reviews[*].tags[*]", hasSize(REVIEWS + REVIEWS / 2)));
+
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(QUERIES_PER_PAGE);
+    }
+
+    @Test
+    void reviewFeedWalksEveryReviewOnceNewestFirst() throws Exception {
+        Set<String> seen = new HashSet<>();
+        Instant previous = Instant.MAX;
+        String cursor = null;
+        int pagesRead = 0;
+        do {
+            var request = get("/api/professors/grace-hopper/reviews").param("limit", "5");
+            if (cursor != null) request.param("cursor", cursor);
+            String body = mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+
+            JsonNode page = json.readTree(body);
+            for (JsonNode item : page.get("items")) {
+                assertThat(seen.add(item.get("id").asText())).isTrue();
+                Instant date = Instant.parse(item.get("date").asText());
+                assertThat(date).isBeforeOrEqualTo(previous);
+                previous = date;
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pagesRead++;
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(REVIEWS);
+        assertThat(pagesRead).isEqualTo(3);
+    }
+
+    @Test
+    void cursorOutsideTheInstantRangeIsABadRequest() throws Exception {
+        byte[] raw = ByteBuffer.allocate(28).putLong(Long.MAX_VALUE).putInt(0).putLong(1).putLong(1).array();
+        mockMvc.perform(get("/api/professors/grace-hopper/reviews")
+                        .param("cursor", Base64.getUrlEncoder().withoutPadding().encodeToString(raw)))
+                .andExpect(status().isBadRequest());
+    }
+}
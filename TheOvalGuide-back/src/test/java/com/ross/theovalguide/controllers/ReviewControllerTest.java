@@ -5,7 +5,9 @@ import com.ross.theovalguide.model.CourseClass;
 import com.ross.theovalguide.model.Review;
 import com.ross.theovalguide.repo.CourseClassRepository;
 import com.ross.theovalguide.repo.ProfessorRepository;
-import com.ross.theovalguide.service.ReviewService;
+import com.ross.theovalguide.service.ClassCodeResolver;
+import com.ross.theovalguide.service.ReviewSubmitter;
+import com.ross.theovalguide.service.TagResolver;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,46 +17,48 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ReviewControllerTest {
 
     @Mock
-    private ReviewService reviewService;
+    private ReviewSubmitter submitter;
     @Mock
     private ProfessorRepository professors;
     @Mock
     private CourseClassRepository classes;
+    @Mock
+    private ClassCodeResolver classCodes;
+    @Mock
+    private TagResolver tags;
 
     private ReviewController controller;
 
     @BeforeEach
     void setUp() {
-        controller = new ReviewController(reviewService, professors, classes);
+        controller = new ReviewController(submitter, professors, classes, classCodes, tags);
     }
 
     @Test
     void createWithExistingClassUsesExistingRecord() {
         CourseClass existing = new CourseClass();
         existing.setId(UUID.randomUUID());
-        when(classes.findByCodeIgnoreCase("CS 1234")).thenReturn(Optional.of(existing));
-
-        Review persisted = new Review();
-        persisted.setId(UUID.randomUUID());
-        when(reviewService.createOrUpdate(any(Review.class))).thenAnswer(invocation -> {
-            Review submitted = invocation.getArgument(0);
-            persisted.setCourseClass(submitted.getCourseClass());
-            return persisted;
-        });
+        when(classCodes.find("CS 1234")).thenReturn(Optional.of(existing));
+
+        when(submitter.submit(any(Review.class), anyCollection())).thenReturn(UUID.randomUUID());
 
         CreateReviewRequest request = new CreateReviewRequest(
                 5,
@@ -73,15 +77,14 @@ class ReviewControllerTest {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
         ArgumentCaptor<Review> reviewCaptor = ArgumentCaptor.forClass(Review.class);
-        verify(reviewService).createOrUpdate(reviewCaptor.capture());
+        verify(submitter).submit(reviewCaptor.capture(), anyCollection());
         assertSame(existing, reviewCaptor.getValue().getCourseClass());
         verify(classes, never()).save(any(CourseClass.class));
     }
 
     @Test
     void createCreatesCourseClassWhenMissingAndRequested() {
-        when(classes.findByCodeIgnoreCase("CS 2201")).thenReturn(Optional.empty());
-        when(classes.findFirstByCodeLoose("CS 2201")).thenReturn(Optional.empty());
+        when(classCodes.find("CS 2201")).thenReturn(Optional.empty());
 
         CourseClass stored = new CourseClass();
         stored.setId(UUID.randomUUID());
@@ -94,13 +97,7 @@ class ReviewControllerTest {
             return stored;
         });
 
-        Review persisted = new Review();
-        persisted.setId(UUID.randomUUID());
-        when(reviewService.createOrUpdate(any(Review.class))).thenAnswer(invocation -> {
-            Review submitted = invocation.getArgument(0);
-            persisted.setCourseClass(submitted.getCourseClass());
-            return persisted;
-        });
+        when(submitter.submit(any(Review.class), anyCollection())).thenReturn(UUID.randomUUID());
 
         CreateReviewRequest request = new CreateReviewRequest(
                 4,
@@ -119,11 +116,43 @@ class ReviewControllerTest {
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
         ArgumentCaptor<Review> reviewCaptor = ArgumentCaptor.forClass(Review.class);
-        verify(reviewService).createOrUpdate(reviewCaptor.capture());
+        verify(submitter).submit(reviewCaptor.capture(), anyCollection());
         assertSame(stored, reviewCaptor.getValue().getCourseClass());
 
-        InOrder inOrder = inOrder(classes, reviewService);
+        InOrder inOrder = inOrder(classes, submitter);
         inOrder.verify(classes).save(any(CourseClass.class));
-        inOrder.verify(reviewService).createOrUpdate(any(Review.class));
+        inOrder.verify(submitter).submit(any(Review.class), anyCollection());
+    }
+
+    @Test
+    void createPassesResolvedTagsToTheService() {
+        CourseClass existing = new CourseClass();
+        existing.setId(UUID.randomUUID());
+        when(classCodes.find("CS 1234")).thenReturn(Optional.of(existing));
+        List<UUID> tagIds = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(tags.resolve(List.of("Tough Grader", "clear lectures"))).thenReturn(tagIds);
+
+        when(submitter.submit(any(Review.class), eq(tagIds))).thenReturn(UUID.randomUUID());
+
+        CreateReviewRequest request = new CreateReviewRequest(
+                3, null, null, List.of("Tough Grader", "clear lectures"), null, "CS 1234",
+                null, null, null, null);
+
+        assertThat(controller.create(request).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        verify(submitter).submit(any(Review.class), eq(tagIds));
+    }
+
+    @Test
+    void rejectedRequestCreatesNoTags() {
+        when(professors.findBySlugIgnoreCase("nobody")).thenReturn(Optional.empty());
+
+        CreateReviewRequest request = new CreateReviewRequest(
+                3, null, null, List.of("brand new label"), "nobody", null,
+                null, null, null, null);
+
+        assertThatThrownBy(() -> controller.create(request))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST));
+        verifyNoInteractions(tags, submitter);
     }
 }
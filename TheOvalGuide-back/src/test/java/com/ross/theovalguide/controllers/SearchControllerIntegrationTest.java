@@ -0,0 +1,105 @@
+package com.ross.theovalguide.controllers;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SearchControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProfessorRepository professors;
+
+    @Autowired
+    private CourseClassRepository classes;
+
+    @AfterEach
+    void cleanUp() {
+        classes.deleteAll();
+        professors.deleteAll();
+    }
+
+    @Test
+    void committedWritesBecomeSearchable() throws Exception {
+        mockMvc.perform(get("/api/search").param("q", "Thermodynamics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)));
+
+        var course = new CourseClass();
+        course.setCode("ME 3301");
+        course.setTitle("Thermodynamics");
+        course.setDepartment("Mechanical Engineering");
+        course.setUniversity("Ohio State");
+        classes.save(course);
+
+        var prof = new Professor();
+        prof.setName("Dana Whitfield");
+        prof.setDepartment("Mechanical Engineering");
+        prof.setUniversity("Ohio State");
+        professors.save(prof);
+
+        mockMvc.perform(get("/api/search").param("q", "thermo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].kind").value("class"))
+                .andExpect(jsonPath("$.items[0].id").value("ME 3301"));
+
+        mockMvc.perform(get("/api/search").param("q", "me3301"))
+                .andExpect(jsonPath("$.items[0].id").value("ME 3301"));
+
+        mockMvc.perform(get("/api/search").param("q", "Dr. Dana Whitfield"))
+                .andExpect(jsonPath("$.items[0].kind").value("professor"))
+                .andExpect(jsonPath("$.items[0].id").value("dana-whitfield"));
+        }
+
+    @Test
+    void suggestCompletesNamesAndCodesByPopularity() throws Exception {
+        var course = new CourseClass();
+        course.setCode("ME 3301");
+        course.setTitle("Thermodynamics");
+        course.setDepartment("Mechanical Engineering");
+        course.setUniversity("Ohio State");
+        course.setTotalRatings(3);
+        classes.save(course);
+
+        var popular = new Professor();
+        popular.setName("Dana Whitfield");
+        popular.setDepartment("Mechanical Engineering");
+        popular.setUniversity("Ohio State");
+        popular.setTotalRatings(25);
+        professors.save(popular);
+
+        var quiet = new Professor();
+        quiet.setName("Dan Whitaker");
+        quiet.setDepartment("Physics");
+        quiet.setUniversity("Ohio State");
+        professors.save(quiet);
+
+        mockMvc.perform(get("/api/search/suggest").param("q", "whit"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id").value("dana-whitfield"))
+                .andExpect(jsonPath("$.items[1].id").value("dan-whitaker"));
+
+        mockMvc.perform(get("/api/search/suggest").param("q", "me33"))
+                .andExpect(jsonPath("$.items[0].id").value("ME 3301"));
+    }
+}
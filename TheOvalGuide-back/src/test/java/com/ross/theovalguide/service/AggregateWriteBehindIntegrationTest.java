@@ -0,0 +1,204 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.service.page.PageReadModel;
+import com.ross.theovalguide.util.ImportRecords.Format;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "reviews.aggregates.write-behind.enabled=true",
+        "reviews.aggregates.flush-ms=3600000",
+        "reviews.aggregates.write-behind.marker=target/test-aggregates.pending"
+})
+@ActiveProfiles("test")
+class AggregateWriteBehindIntegrationTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private AggregateWriteBehind writeBehind;
+
+    @Autowired
+    private ReviewImportService importer;
+
+    @Autowired
+    private ProfessorRepository professors;
+
+    @Autowired
+    private CourseClassRepository classes;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Autowired
+    private PageReadModel pages;
+
+    private UUID profId;
+    private UUID classId;
+
+    @BeforeEach
+    void seed() {
+        tx.executeWithoutResult(s -> {
+            var prof = new Professor();
+            prof.setName("Edsger Dijkstra");
+            prof.setSlug("edsger-dijkstra");
+            prof.setDepartment("Computer Science");
+            prof.setUniversity("Ohio State");
+            em.persist(prof);
+            profId = prof.getId();
+
+            var course = new CourseClass();
+            course.setCode("CSE 6341");
+            course.setTitle("Programming Languages");
+            course.setDepartment("Computer Science");
+            course.setUniversity("Ohio State");
+            em.persist(course);
+            classId = course.getId();
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(s -> {
+            for (String entity : new String[]{"Review", "CourseClass", "Professor"}) {
+                em.createQuery("delete from " + entity).executeUpdate();
+            }
+        });
+        writeBehind.flush();   // leftovers now update no rows
+        pages.clear();
+    }
+
+    @Test
+    void deltasAreMergedInMemoryAndWrittenByTheFlush() {
+        reviewService.createOrUpdate(review(5, 4));
+        reviewService.createOrUpdate(review(3, null));
+        Review edited = reviewService.createOrUpdate(review(1, 2));
+        edited.setRating(4);
+        reviewService.createOrUpdate(edited);
+
+        // the review transactions did not touch the aggregate rows
+        assertThat(professors.findById(profId).orElseThrow().getTotalRatings()).isZero();
+        assertThat(writeBehind.pending()).isEqualTo(2);
+
+        writeBehind.flush();
+
+        assertThat(writeBehind.pending()).isZero();
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(3);
+        assertThat(prof.getRatingSum()).isEqualTo(12);
+        assertThat(prof.getOverallRating()).isEqualByComparingTo(new BigDecimal("4.00"));
+        assertThat(List.of(prof.getRatingCount1(), prof.getRatingCount3(), prof.getRatingCount4(), prof.getRatingCount5()))
+                .containsExactly(0, 1, 1, 1);
+        var course = classes.findById(classId).orElseThrow();
+        assertThat(course.getTotalRatings()).isEqualTo(3);
+        assertThat(course.getDifficultyCount()).isEqualTo(2);
+        assertThat(course.getDifficultyAvg()).isEqualByComparingTo(new BigDecimal("3.00"));
+        assertThat(course.getDifficultyCount2()).isEqualTo(1);
+    }
+
+    @Test
+    void aRestartAfterACrashRecountsFromReviews() {
+        reviewService.createOrUpdate(review(2, 5));
+        reviewService.createOrUpdate(review(4, 1));
+        assertThat(writeBehind.pending()).isEqualTo(2);
+
+        // the process dies with those deltas in memory; the next one finds the marker the first one left
+        var restarted = new AggregateWriteBehind(jdbc, tx, professors, classes, events);
+        ReflectionTestUtils.setField(restarted, "enabled", true);
+        ReflectionTestUtils.setField(restarted, "marker", Path.of("target/test-aggregates.pending"));
+        restarted.recover();
+
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(2);
+        assertThat(prof.getOverallRating()).isEqualByComparingTo(new BigDecimal("3.00"));
+        assertThat(prof.getRatingCount2()).isEqualTo(1);
+        var course = classes.findById(classId).orElseThrow();
+        assertThat(course.getDifficultySum()).isEqualTo(6);
+        assertThat(course.getDifficultyCount5()).isEqualTo(1);
+    }
+
+    @Test
+    void aRestartAfterACrashRecountsTheProfessorAReviewMovedAwayFrom() {
+        Review moved = reviewService.createOrUpdate(review(5, 3));
+        writeBehind.flush();
+
+        UUID otherId = tx.execute(s -> {
+            var other = new Professor();
+            other.setName("Tony Hoare");
+            other.setSlug("tony-hoare");
+            other.setDepartment("Computer Science");
+            other.setUniversity("Ohio State");
+            em.persist(other);
+            return other.getId();
+        });
+        moved.setProfessor(em.getReference(Professor.class, otherId));
+        reviewService.createOrUpdate(moved);
+
+        // crash with the -1 for the first professor buffered; it has no review left to be found by
+        var restarted = new AggregateWriteBehind(jdbc, tx, professors, classes, events);
+        ReflectionTestUtils.setField(restarted, "enabled", true);
+        ReflectionTestUtils.setField(restarted, "marker", Path.of("target/test-aggregates.pending"));
+        restarted.recover();
+
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isZero();
+        assertThat(prof.getRatingCount5()).isZero();
+        assertThat(prof.getOverallRating()).isNull();
+        assertThat(professors.findById(otherId).orElseThrow().getTotalRatings()).isEqualTo(1);
+    }
+
+    @Test
+    void anImportRecountDoesNotCountABufferedLiveReviewTwice() throws Exception {
+        reviewService.createOrUpdate(review(4, null));
+        assertThat(writeBehind.pending()).isEqualTo(2);
+
+        importer.importReviews(new StringReader("professor_slug,rating\nedsger-dijkstra,2\n"), Format.CSV);
+        writeBehind.flush();
+
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(2);
+        assertThat(prof.getRatingSum()).isEqualTo(6);
+        assertThat(prof.getRatingCount4()).isEqualTo(1);
+    }
+
+    private Review review(int rating, Integer difficulty) {
+        var r = new Review();
+        r.setProfessor(em.getReference(Professor.class, profId));
+        r.setCourseClass(em.getReference(CourseClass.class, classId));
+        r.setRating(rating);
+        r.setDifficulty(difficulty);
+        return r;
+    }
+}
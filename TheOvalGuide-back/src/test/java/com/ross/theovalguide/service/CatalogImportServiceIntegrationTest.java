@@ -0,0 +1,219 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.repo.ClassProfessorRepository;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.service.page.PageReadModel;
+import com.ross.theovalguide.util.ImportRecords.Format;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "catalog.import.batch-size=2")
+@ActiveProfiles("test")
+class CatalogImportServiceIntegrationTest {
+
+    @Autowired
+    private CatalogImportService importer;
+
+    @Autowired
+    private ProfessorRepository professors;
+
+    @Autowired
+    private CourseClassRepository classes;
+
+    @Autowired
+    private ClassProfessorRepository links;
+
+    @Autowired
+    private ClassCodeResolver classCodes;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Autowired
+    private PageReadModel pages;
+
+    @TempDir
+    Path dir;
+
+    private UUID hopperId;
+    private UUID classId;
+
+    @BeforeEach
+    void seed() {
+        tx.executeWithoutResult(s -> {
+            var hopper = new Professor();
+            hopper.setName("Grace Hopper");
+            hopper.setSlug("grace-hopper");
+            hopper.setDepartment("Computer Science");
+            hopper.setUniversity("Ohio State");
+            em.persist(hopper);
+            hopperId = hopper.getId();
+
+            // same name, other university: a different person whose slug is taken
+            var kay = new Professor();
+            kay.setName("Alan Kay");
+            kay.setSlug("alan-kay");
+            kay.setDepartment("Computer Science");
+            kay.setUniversity("UCLA");
+            em.persist(kay);
+
+            var course = new CourseClass();
+            course.setCode("CSE 2221");
+            course.setTitle("Software 1");
+            course.setDepartment("Computer Science");
+            course.setUniversity("Ohio State");
+            em.persist(course);
+            classId = course.getId();
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(s -> {
+            for (String entity : new String[]{"ClassProfessor", "CourseClass", "Professor"}) {
+                em.createQuery("delete from " + entity).executeUpdate();
+            }
+        });
+        pages.clear();
+    }
+
+    @Test
+    void dedupesClassesAndProfessorsAndGeneratesUniqueSlugs() throws Exception {
+        Path file = Files.writeString(dir.resolve("catalog.csv"), """
+                university,department,class_code,class_title,instructor
+                Ohio State,Computer Science,cse2221,Software I,Dr. Grace Hopper
+                Ohio State,Computer Science,CSE 2221,Software I,Alan Kay
+                Ohio State,Computer Science,CSE 2221,Software I,alan kay
+                Ohio State,Computer Science,CSE 2231,Software II,Alan Kay
+                Ohio State,Computer Science,CSE 2231,Software II,
+                Ohio State,Computer Science,,No Code,Grace Hopper
+                """);
+
+        var report = importer.importFile(file);
+
+        assertThat(report.rows()).isEqualTo(6);
+        assertThat(report.classesCreated()).isEqualTo(1);
+        assertThat(report.classesUpdated()).isEqualTo(1);
+        assertThat(report.professorsCreated()).isEqualTo(1);
+        assertThat(report.linksCreated()).isEqualTo(3);
+        assertThat(report.skipped()).containsOnlyKeys("missing class code, title, department or university");
+
+        assertThat(classes.findById(classId).orElseThrow().getTitle()).isEqualTo("Software I");
+        UUID newClass = classCodes.resolve("cse 2231").orElseThrow();
+        var kay = professors.findBySlugIgnoreCase("alan-kay-2").orElseThrow();
+        assertThat(kay.getUniversity()).isEqualTo("Ohio State");
+        assertThat(links.professorsForClass(classId)).extracting(row -> row[0])
+                .containsExactlyInAnyOrder(hopperId, kay.getId());
+        assertThat(links.professorsForClass(newClass)).extracting(row -> row[0]).containsExactly(kay.getId());
+
+        // loading the same catalog again changes nothing
+        var again = importer.importFile(file);
+        assertThat(again.classesCreated() + again.classesUpdated() + again.professorsCreated() + again.linksCreated())
+                .isZero();
+        assertThat(professors.count()).isEqualTo(3);
+    }
+
+    @Test
+    void aSlugTakenDuringTheLoadGoesToItsOwnerOnlyWhenItIsTheSameProfessor() throws Exception {
+        String csv = """
+                university,department,class_code,class_title,instructor
+                Ohio State,Computer Science,CSE 2221,Software 1,Barbara Liskov
+                Ohio State,Computer Science,CSE 2221,Software 1,Niklaus Wirth
+                """;
+        // both slugs are claimed after the existing catalog was read, before the batch is written
+        var racing = new StringReader(csv) {
+            boolean raced;
+
+            @Override
+            public int read(char[] buf, int off, int len) throws IOException {
+                if (!raced) {
+                    raced = true;
+                    tx.executeWithoutResult(s -> {
+                        em.persist(professor("Barbara Liskov", "barbara-liskov", "MIT"));
+                        em.persist(professor("Niklaus Wirth", "niklaus-wirth", "Ohio State"));
+                    });
+                }
+                return super.read(buf, off, len);
+            }
+        };
+
+        var report = importer.importCatalog(racing, Format.CSV);
+
+        assertThat(report.professorsCreated()).isEqualTo(1);
+        var mit = professors.findBySlugIgnoreCase("barbara-liskov").orElseThrow();
+        var liskov = professors.findBySlugIgnoreCase("barbara-liskov-2").orElseThrow();
+        var wirth = professors.findBySlugIgnoreCase("niklaus-wirth").orElseThrow();
+        assertThat(liskov.getUniversity()).isEqualTo("Ohio State");
+        assertThat(links.professorsForClass(classId)).extracting(row -> row[0])
+                .containsExactlyInAnyOrder(liskov.getId(), wirth.getId())
+                .doesNotContain(mit.getId());
+    }
+
+    @Test
+    void aClassCreatedDuringTheLoadTakesTheDetailsFromTheFile() throws Exception {
+        String csv = """
+                university,department,class_code,class_title,instructor
+                Ohio State,Computer Science,CSE 3901,Project,
+                Ohio State,Computer Science,CSE 3901,Project: Web Apps,
+                """;
+        // the class is created after the existing catalog was read, before the batch is written
+        var racing = new StringReader(csv) {
+            boolean raced;
+
+            @Override
+            public int read(char[] buf, int off, int len) throws IOException {
+                if (!raced) {
+                    raced = true;
+                    tx.executeWithoutResult(s -> {
+                        var course = new CourseClass();
+                        course.setCode("CSE 3901");
+                        course.setTitle("Web Project");
+                        course.setDepartment("CSE");
+                        course.setUniversity("Ohio State");
+                        em.persist(course);
+                    });
+                }
+                return super.read(buf, off, len);
+            }
+        };
+
+        var report = importer.importCatalog(racing, Format.CSV);
+
+        assertThat(report.classesCreated()).isZero();
+        assertThat(report.classesUpdated()).isEqualTo(1);
+        var course = classes.findById(classCodes.resolve("cse3901").orElseThrow()).orElseThrow();
+        assertThat(course.getTitle()).isEqualTo("Project: Web Apps");
+        assertThat(course.getDepartment()).isEqualTo("Computer Science");
+        assertThat(classes.count()).isEqualTo(2);
+    }
+
+    private static Professor professor(String name, String slug, String university) {
+        var p = new Professor();
+        p.setName(name);
+        p.setSlug(slug);
+        p.setDepartment("Computer Science");
+        p.setUniversity(university);
+        return p;
+    }
+}
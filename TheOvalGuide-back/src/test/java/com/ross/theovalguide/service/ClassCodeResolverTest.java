@@ -0,0 +1,77 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.service.search.CatalogChangedEvent;
+import com.ross.theovalguide.service.search.CatalogChangedEvent.Change;
+import com.ross.theovalguide.service.search.SearchDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClassCodeResolverTest {
+
+    @Mock
+    private CourseClassRepository classes;
+
+    private ClassCodeResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new ClassCodeResolver(classes);
+    }
+
+    @Test
+    void missProbesIndexOnceThenResolvesFromMemory() {
+        UUID id = UUID.randomUUID();
+        when(classes.findIdByCodeNormalized("CS2201")).thenReturn(Optional.of(id));
+
+        assertThat(resolver.resolve("cs 2201")).contains(id);
+        assertThat(resolver.resolve("CS2201")).contains(id);
+        assertThat(resolver.resolve(" Cs  2201 ")).contains(id);
+
+        verify(classes, times(1)).findIdByCodeNormalized("CS2201");
+    }
+
+    @Test
+    void renameAndDeleteKeepMapCurrent() {
+        CourseClass c = new CourseClass();
+        c.setId(UUID.randomUUID());
+        c.setCode("CS 2201");
+        resolver.onCatalogChanged(new CatalogChangedEvent(SearchDocument.of(c), Change.CREATED));
+        assertThat(resolver.resolve("cs2201")).contains(c.getId());
+
+        c.setCode("CS 2212");
+        resolver.onCatalogChanged(new CatalogChangedEvent(SearchDocument.of(c), Change.UPDATED));
+        assertThat(resolver.resolve("CS 2212")).contains(c.getId());
+        assertThat(resolver.resolve("CS 2201")).isEmpty();   // falls through to the (empty) index probe
+
+        resolver.onCatalogChanged(new CatalogChangedEvent(SearchDocument.of(c), Change.REMOVED));
+        assertThat(resolver.size()).isZero();
+    }
+
+    @Test
+    void findFetchesByIdOnHitAndEvictsStaleEntries() {
+        CourseClass c = new CourseClass();
+        c.setId(UUID.randomUUID());
+        c.setCode("MATH 1300");
+        resolver.onCatalogChanged(new CatalogChangedEvent(SearchDocument.of(c), Change.CREATED));
+        when(classes.findById(c.getId())).thenReturn(Optional.of(c));
+
+        assertThat(resolver.find("math1300")).contains(c);
+        verify(classes, never()).findByCodeNormalized(anyString());
+
+        when(classes.findById(c.getId())).thenReturn(Optional.empty());
+        assertThat(resolver.find("MATH 1300")).isEmpty();
+        assertThat(resolver.size()).isZero();
+    }
+}
@@ -0,0 +1,199 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.service.page.PageReadModel;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "reviews.import.batch-size=2")
+@ActiveProfiles("test")
+class ReviewImportServiceIntegrationTest {
+
+    @Autowired
+    private ReviewImportService importer;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ProfessorRepository professors;
+
+    @Autowired
+    private CourseClassRepository classes;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Autowired
+    private PageReadModel pages;
+
+    @TempDir
+    Path dir;
+
+    private UUID profId;
+    private UUID classId;
+
+    @BeforeEach
+    void seed() {
+        tx.executeWithoutResult(s -> {
+            var prof = new Professor();
+            prof.setName("Barbara Liskov");
+            prof.setSlug("barbara-liskov");
+            prof.setDepartment("Computer Science");
+            prof.setUniversity("Ohio State");
+            em.persist(prof);
+            profId = prof.getId();
+
+            var course = new CourseClass();
+            course.setCode("CSE 3901");
+            course.setTitle("Web Applications");
+            course.setDepartment("Computer Science");
+            course.setUniversity("Ohio State");
+            em.persist(course);
+            classId = course.getId();
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(s -> {
+            for (String entity : new String[]{"Review", "CourseClass", "Professor"}) {
+                em.createQuery("delete from " + entity).executeUpdate();
+            }
+        });
+        pages.clear();
+    }
+
+    @Test
+    void importsCsvInBatchesAndRecountsAggregates() throws Exception {
+        Path file = Files.writeString(dir.resolve("reviews.csv"), """
+                professor_slug,class_code,rating,difficulty,comment,created_at
+                Barbara-Liskov,cse3901,5,4,"Clear, well ""paced""\",2019-03-01T12:00:00Z
+                barbara-liskov,,3,,,2019-04-01T12:00:00Z
+                ,CSE 3901,2,5,"multi
+                line",
+                nobody,CSE 3901,4,2,,
+                barbara-liskov,CSE 9999,4,2,,
+                barbara-liskov,CSE 3901,9,2,,
+                """);
+
+        var report = importer.importFile(file);
+
+        assertThat(report.rows()).isEqualTo(6);
+        assertThat(report.imported()).isEqualTo(3);
+        assertThat(report.skipped()).containsEntry("unknown professor", 1L)
+                .containsEntry("unknown class", 1L)
+                .containsEntry("rating not 1..5", 1L);
+
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(2);
+        assertThat(prof.getOverallRating()).isEqualByComparingTo(new BigDecimal("4.00"));
+        assertThat(prof.getRatingCount5()).isEqualTo(1);
+        var course = classes.findById(classId).orElseThrow();
+        assertThat(course.getTotalRatings()).isEqualTo(2);
+        assertThat(course.getDifficultyAvg()).isEqualByComparingTo(new BigDecimal("4.50"));
+
+        // legacy dates survive the import
+        assertThat(jdbc.queryForObject("select created_at from reviews where comment = ?", Timestamp.class,
+                "Clear, well \"paced\"").toInstant()).isEqualTo(Instant.parse("2019-03-01T12:00:00Z"));
+        assertThat(jdbc.queryForList("select comment from reviews where professor_id is null", String.class))
+                .containsExactly("multi\nline");
+    }
+
+    @Test
+    void importsNdjson() throws Exception {
+        Path file = Files.writeString(dir.resolve("reviews.ndjson"), """
+                {"professorSlug": "barbara-liskov", "classCode": "CSE 3901", "rating": 4, "difficulty": 3}
+                {"professor_slug": "barbara-liskov", "rating": "2", "comment": null}
+
+                {not json
+                {"class_code": "cse 3901", "rating": 0}
+                """);
+
+        var report = importer.importFile(file);
+
+        assertThat(report.imported()).isEqualTo(2);
+        assertThat(report.skipped()).containsEntry("malformed json", 1L).containsEntry("rating not 1..5", 1L);
+        assertThat(report.rows()).isEqualTo(4);
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(2);
+        assertThat(List.of(prof.getRatingCount2(), prof.getRatingCount4())).containsExactly(1, 1);
+        assertThat(classes.findById(classId).orElseThrow().getDifficultyCount3()).isEqualTo(1);
+    }
+
+    @Test
+    void aLiveReviewCommittingDuringTheRecountIsNotOverwritten() throws Exception {
+        Path file = Files.writeString(dir.resolve("reviews.csv"), """
+                professor_slug,class_code,rating,difficulty,comment,created_at
+                barbara-liskov,CSE 3901,2,3,,
+                """);
+        // a live review has incremented the professor and class but not committed yet
+        var written = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var live = CompletableFuture.runAsync(() -> tx.executeWithoutResult(s -> {
+            var r = new Review();
+            r.setProfessor(em.getReference(Professor.class, profId));
+            r.setCourseClass(em.getReference(CourseClass.class, classId));
+            r.setRating(5);
+            r.setDifficulty(1);
+            reviewService.createOrUpdate(r);
+            written.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+
+        var imported = CompletableFuture.supplyAsync(() -> {
+            try {
+                return importer.importFile(file);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(300);
+        release.countDown();
+        live.get(5, TimeUnit.SECONDS);
+        assertThat(imported.get(10, TimeUnit.SECONDS).imported()).isEqualTo(1);
+
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(2);
+        assertThat(List.of(prof.getRatingCount2(), prof.getRatingCount5())).containsExactly(1, 1);
+        var course = classes.findById(classId).orElseThrow();
+        assertThat(course.getTotalRatings()).isEqualTo(2);
+        assertThat(course.getDifficultyAvg()).isEqualByComparingTo(new BigDecimal("2.00"));
+    }
+}
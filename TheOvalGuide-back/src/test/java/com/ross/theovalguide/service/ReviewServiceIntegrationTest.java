@@ -0,0 +1,266 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.bootstrap.AggregateRepairJob;
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.model.Tag;
+import com.ross.theovalguide.model.TagCount;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.repo.TagCountRepository;
+import com.ross.theovalguide.service.page.PageReadModel;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class ReviewServiceIntegrationTest {
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ProfessorRepository professors;
+
+    @Autowired
+    private CourseClassRepository classes;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Autowired
+    private PageReadModel pages;
+
+    @Autowired
+    private AggregateRepairJob repairJob;
+
+    @Autowired
+    private TagCountRepository tagCounts;
+
+    @Autowired
+    private TagResolver tagResolver;
+
+    @Autowired
+    private EntityManagerFactory emf;
+
+    private UUID profId;
+    private UUID classId;
+    private Tag tag;
+
+    @BeforeEach
+    void seed() {
+        tx.executeWithoutResult(s -> {
+            var prof = new Professor();
+            prof.setName("Alan Turing");
+            prof.setSlug("alan-turing");
+            prof.setDepartment("Mathematics");
+            prof.setUniversity("Ohio State");
+            em.persist(prof);
+            profId = prof.getId();
+
+            var course = new CourseClass();
+            course.setCode("MATH 4580");
+            course.setTitle("Computability");
+            course.setDepartment("Mathematics");
+            course.setUniversity("Ohio State");
+            em.persist(course);
+            classId = course.getId();
+
+            tag = new Tag();
+            tag.setLabel("proof heavy");
+            em.persist(tag);
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(s -> {
+            for (String entity : new String[]{"TagCount", "ReviewTag", "Tag", "Review", "CourseClass", "Professor"}) {
+                em.createQuery("delete from " + entity).executeUpdate();
+            }
+        });
+        pages.clear();
+        tagResolver.clear();   // the tags are gone
+    }
+
+    @Test
+    void reviewsMoveRunningSumsAndDerivedAverages() {
+        reviewService.createOrUpdate(review(4, 2));
+        reviewService.createOrUpdate(review(4, null));
+        Review third = reviewService.createOrUpdate(review(3, 5));
+
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(3);
+        assertThat(prof.getRatingSum()).isEqualTo(11);
+        assertThat(prof.getOverallRating()).isEqualByComparingTo(new BigDecimal("3.67"));
+        assertThat(List.of(prof.getRatingCount1(), prof.getRatingCount2(), prof.getRatingCount3(),
+                prof.getRatingCount4(), prof.getRatingCount5())).containsExactly(0, 0, 1, 2, 0);
+
+        var course = classes.findById(classId).orElseThrow();
+        assertThat(course.getTotalRatings()).isEqualTo(3);
+        assertThat(course.getDifficultyCount()).isEqualTo(2);
+        assertThat(course.getDifficultySum()).isEqualTo(7);
+        assertThat(course.getDifficultyAvg()).isEqualByComparingTo(new BigDecimal("3.50"));
+        assertThat(List.of(course.getDifficultyCount1(), course.getDifficultyCount2(), course.getDifficultyCount3(),
+                course.getDifficultyCount4(), course.getDifficultyCount5())).containsExactly(0, 1, 0, 0, 1);
+
+        // an edit backs the stored values out before adding the new ones
+        third.setRating(1);
+        third.setDifficulty(null);
+        reviewService.createOrUpdate(third);
+
+        prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(3);
+        assertThat(prof.getOverallRating()).isEqualByComparingTo(new BigDecimal("3.00"));
+        assertThat(prof.getRatingCount1()).isEqualTo(1);
+        assertThat(prof.getRatingCount3()).isZero();
+        course = classes.findById(classId).orElseThrow();
+        assertThat(course.getDifficultyCount()).isEqualTo(1);
+        assertThat(course.getDifficultyAvg()).isEqualByComparingTo(new BigDecimal("2.00"));
+        assertThat(course.getDifficultyCount5()).isZero();
+    }
+
+    @Test
+    void repairJobRebuildsHistogramsFromReviews() {
+        reviewService.createOrUpdate(review(2, 4));
+        reviewService.createOrUpdate(review(2, 4));
+        tx.executeWithoutResult(s -> {
+            em.createQuery("update Professor p set p.ratingCount2 = 40, p.ratingCount5 = 7").executeUpdate();
+            em.createQuery("update CourseClass c set c.difficultyCount4 = 0").executeUpdate();
+        });
+
+        repairJob.repairAll();
+
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getRatingCount2()).isEqualTo(2);
+        assertThat(prof.getRatingCount5()).isZero();
+        assertThat(classes.findById(classId).orElseThrow().getDifficultyCount4()).isEqualTo(2);
+    }
+
+    @Test
+    void repairJobRecountsTags() {
+        Review r = reviewService.createOrUpdate(review(3, 3));
+        tx.executeWithoutResult(s -> reviewService.addTags(r, List.of(tag.getId())));
+        tx.executeWithoutResult(s -> em.createQuery("update TagCount tc set tc.reviewCount = 9").executeUpdate());
+
+        repairJob.repairAll();
+
+        assertThat(count(profId)).isEqualTo(1);
+        assertThat(count(classId)).isEqualTo(1);
+    }
+
+    @Test
+    void tagsAreCountedForTheProfessorAndClassAndMoveWithTheReview() {
+        Review first = reviewService.createOrUpdate(review(4, 3));
+        Review second = reviewService.createOrUpdate(review(5, 3));
+        tx.executeWithoutResult(s -> {
+            reviewService.addTags(first, List.of(tag.getId()));
+            reviewService.addTags(second, List.of(tag.getId()));
+            reviewService.addTags(second, List.of(tag.getId()));   // already tagged: not counted twice
+        });
+
+        assertThat(count(profId)).isEqualTo(2);
+        assertThat(count(classId)).isEqualTo(2);
+
+        UUID otherClass = tx.execute(s -> {
+            var course = new CourseClass();
+            course.setCode("MATH 5101");
+            course.setTitle("Logic");
+            course.setDepartment("Mathematics");
+            course.setUniversity("Ohio State");
+            em.persist(course);
+            return course.getId();
+        });
+        second.setCourseClass(em.getReference(CourseClass.class, otherClass));
+        reviewService.createOrUpdate(second);
+
+        assertThat(count(profId)).isEqualTo(2);
+        assertThat(count(classId)).isEqualTo(1);
+        assertThat(count(otherClass)).isEqualTo(1);
+        assertThat(tagCounts.topTags(classId, Limit.of(5)))
+                .singleElement().satisfies(row -> assertThat(row[1]).isEqualTo("PROOF HEAVY"));
+    }
+
+    @Test
+    void submittedTagsAreCreatedOnceAndWrittenInOneBatch() {
+        Statistics stats = emf.unwrap(SessionFactory.class).getStatistics();
+        var labels = List.of("Proof Heavy", "curved", "Pop quizzes", "slides online", "long homework");
+        var ids = tagResolver.resolve(labels);
+        assertThat(tagResolver.resolve(List.of("proof  heavy", "CURVED"))).containsExactly(ids.get(0), ids.get(1));
+
+        stats.clear();
+        reviewService.createOrUpdate(review(4, 2), ids.subList(0, 1));
+        long oneTag = stats.getPrepareStatementCount();
+
+        stats.clear();
+        reviewService.createOrUpdate(review(4, 2), ids);
+        assertThat(stats.getPrepareStatementCount()).isEqualTo(oneTag);
+
+        assertThat(count(profId)).isEqualTo(2);   // "proof heavy" is the seeded tag, found case-insensitively
+        assertThat(tagCounts.topTags(classId, Limit.of(10))).hasSize(5);
+    }
+
+    @Test
+    void concurrentReviewsDoNotLoseIncrements() throws Exception {
+        int writers = 8;
+        int perWriter = 10;
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                done.add(pool.submit(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        reviewService.createOrUpdate(review(5, 1));
+                    }
+                }));
+            }
+            for (Future<?> f : done) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(writers * perWriter);
+        assertThat(prof.getRatingSum()).isEqualTo(5L * writers * perWriter);
+        var course = classes.findById(classId).orElseThrow();
+        assertThat(course.getTotalRatings()).isEqualTo(writers * perWriter);
+        assertThat(course.getDifficultyCount()).isEqualTo(writers * perWriter);
+    }
+
+    private long count(UUID subjectId) {
+        return tagCounts.findById(new TagCount.Key(subjectId, tag.getId())).map(TagCount::getReviewCount).orElse(0L);
+    }
+
+    private Review review(int rating, Integer difficulty) {
+        var r = new Review();
+        r.setProfessor(em.getReference(Professor.class, profId));
+        r.setCourseClass(em.getReference(CourseClass.class, classId));
+        r.setRating(rating);
+        r.setDifficulty(difficulty);
+        return r;
+    }
+}
@@ -0,0 +1,109 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.model.Tag;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+
+/**
+ * Review submissions per second, per-request transactions vs group commit, with more concurrent
+ * clients than pooled connections. Opt-in:
+ * {@code mvn test -Dtest=ReviewSubmitBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = {
+        "reviews.group-commit.enabled=true",
+        "spring.datasource.hikari.maximum-pool-size=4"
+})
+@ActiveProfiles("test")
+class ReviewSubmitBenchmarkTest {
+
+    private static final int CLIENTS = 32;
+    private static final int PER_CLIENT = 100;
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewSubmitter submitter;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Test
+    void perRequestVersusGroupCommit() throws Exception {
+        List<UUID> ids = tx.execute(s -> {
+            var prof = new Professor();
+            prof.setName("Bench Mark");
+            prof.setSlug("bench-mark");
+            prof.setDepartment("Benchmarks");
+            prof.setUniversity("Ohio State");
+            em.persist(prof);
+            var course = new CourseClass();
+            course.setCode("BENCH 1000");
+            course.setTitle("Throughput");
+            course.setDepartment("Benchmarks");
+            course.setUniversity("Ohio State");
+            em.persist(course);
+            var tag = new Tag();
+            tag.setLabel("benchmark");
+            em.persist(tag);
+            return List.of(prof.getId(), course.getId(), tag.getId());
+        });
+
+        BiConsumer<Review, Collection<UUID>> perRequest = reviewService::createOrUpdate;
+        BiConsumer<Review, Collection<UUID>> grouped = submitter::submit;
+        run("warm-up", perRequest, ids);
+        run("warm-up", grouped, ids);
+        for (int round = 1; round <= ROUNDS; round++) {
+            run("per-request", perRequest, ids);
+            run("group-commit", grouped, ids);
+        }
+    }
+
+    private void run(String label, BiConsumer<Review, Collection<UUID>> write, List<UUID> ids) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(CLIENTS);
+        long started = System.nanoTime();
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                done.add(pool.submit(() -> {
+                    for (int i = 0; i < PER_CLIENT; i++) {
+                        var r = new Review();
+                        r.setProfessor(em.getReference(Professor.class, ids.get(0)));
+                        r.setCourseClass(em.getReference(CourseClass.class, ids.get(1)));
+                        r.setRating(1 + i % 5);
+                        r.setDifficulty(1 + i % 3);
+                        write.accept(r, List.of(ids.get(2)));
+                    }
+                }));
+            }
+            for (Future<?> f : done) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        System.out.printf("%-13s %6d reviews in %6.2f s = %8.0f reviews/s%n",
+                label, CLIENTS * PER_CLIENT, seconds, CLIENTS * PER_CLIENT / seconds);
+    }
+}
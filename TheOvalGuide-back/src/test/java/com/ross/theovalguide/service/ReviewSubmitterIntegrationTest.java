@@ -0,0 +1,203 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.CourseClass;
+import com.ross.theovalguide.model.Professor;
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.model.Tag;
+import com.ross.theovalguide.repo.CourseClassRepository;
+import com.ross.theovalguide.repo.ProfessorRepository;
+import com.ross.theovalguide.repo.ReviewRepository;
+import com.ross.theovalguide.repo.TagCountRepository;
+import com.ross.theovalguide.service.ReviewService.Submission;
+import com.ross.theovalguide.service.page.PageReadModel;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "reviews.group-commit.enabled=true",
+        "reviews.group-commit.window-ms=20",
+        "reviews.group-commit.max-batch=16"
+})
+@ActiveProfiles("test")
+class ReviewSubmitterIntegrationTest {
+
+    @Autowired
+    private ReviewSubmitter submitter;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private ReviewRepository reviews;
+
+    @Autowired
+    private ProfessorRepository professors;
+
+    @Autowired
+    private CourseClassRepository classes;
+
+    @Autowired
+    private TagCountRepository tagCounts;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private TransactionTemplate tx;
+
+    @Autowired
+    private PageReadModel pages;
+
+    private UUID profId;
+    private UUID classId;
+    private UUID tagId;
+
+    @BeforeEach
+    void seed() {
+        tx.executeWithoutResult(s -> {
+            var prof = new Professor();
+            prof.setName("Barbara Liskov");
+            prof.setSlug("barbara-liskov");
+            prof.setDepartment("Computer Science");
+            prof.setUniversity("Ohio State");
+            em.persist(prof);
+            profId = prof.getId();
+
+            var course = new CourseClass();
+            course.setCode("CSE 3901");
+            course.setTitle("Web Apps");
+            course.setDepartment("Computer Science");
+            course.setUniversity("Ohio State");
+            em.persist(course);
+            classId = course.getId();
+
+            var tag = new Tag();
+            tag.setLabel("group projects");
+            em.persist(tag);
+            tagId = tag.getId();
+        });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        tx.executeWithoutResult(s -> {
+            for (String entity : new String[]{"TagCount", "ReviewTag", "Tag", "Review", "CourseClass", "Professor"}) {
+                em.createQuery("delete from " + entity).executeUpdate();
+            }
+        });
+        pages.clear();
+    }
+
+    @Test
+    void concurrentSubmissionsAreCommittedTogetherAndEachCallerGetsItsId() throws Exception {
+        int writers = 8;
+        int perWriter = 10;
+        Set<UUID> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                done.add(pool.submit(() -> {
+                    for (int i = 0; i < perWriter; i++) {
+                        ids.add(submitter.submit(review(4), List.of(tagId)));
+                    }
+                }));
+            }
+            for (Future<?> f : done) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertThat(ids).hasSize(writers * perWriter);
+        assertThat(new HashSet<>(reviews.findAllById(ids))).hasSize(writers * perWriter);
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(writers * perWriter);
+        assertThat(prof.getRatingCount4()).isEqualTo(writers * perWriter);
+        assertThat(tagCounts.topTags(classId, Limit.of(1)).get(0)[2]).isEqualTo((long) writers * perWriter);
+    }
+
+    @Test
+    void anInvalidSubmissionFailsOnlyItsOwnCaller() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            Future<UUID> good1 = pool.submit(() -> submitter.submit(review(5), List.of()));
+            Future<UUID> bad = pool.submit(() -> submitter.submit(review(9), List.of()));
+            Future<UUID> good2 = pool.submit(() -> submitter.submit(review(3), List.of()));
+
+            assertThat(reviews.findById(good1.get())).isPresent();
+            assertThat(reviews.findById(good2.get())).isPresent();
+            assertThatThrownBy(bad::get).hasRootCauseInstanceOf(ConstraintViolationException.class);
+        } finally {
+            pool.shutdown();
+        }
+        assertThat(professors.findById(profId).orElseThrow().getTotalRatings()).isEqualTo(2);
+    }
+
+    @Test
+    void aBatchMovesEachAggregateBySummedDeltas() {
+        UUID otherTag = tx.execute(s -> {
+            var tag = new Tag();
+            tag.setLabel("tough grader");
+            em.persist(tag);
+            return tag.getId();
+        });
+
+        reviewService.createAll(List.of(
+                new Submission(review(5, 4), List.of(tagId, otherTag)),
+                new Submission(review(3, null), List.of(tagId)),
+                new Submission(review(5, 2), List.of(tagId, tagId))));
+
+        var prof = professors.findById(profId).orElseThrow();
+        assertThat(prof.getTotalRatings()).isEqualTo(3);
+        assertThat(prof.getRatingSum()).isEqualTo(13L);
+        assertThat(List.of(prof.getRatingCount3(), prof.getRatingCount5())).containsExactly(1, 2);
+        assertThat(prof.getOverallRating()).isEqualByComparingTo(new BigDecimal("4.33"));
+        var course = classes.findById(classId).orElseThrow();
+        assertThat(course.getTotalRatings()).isEqualTo(3);
+        assertThat(course.getDifficultyCount()).isEqualTo(2);
+        assertThat(List.of(course.getDifficultyCount2(), course.getDifficultyCount4())).containsExactly(1, 1);
+        assertThat(course.getDifficultyAvg()).isEqualByComparingTo(new BigDecimal("3.00"));
+        for (UUID subject : List.of(profId, classId)) {
+            assertThat(tagCounts.topTags(subject, Limit.of(2))).extracting(row -> row[0], row -> row[2])
+                    .containsExactly(tuple(tagId, 3L),
+                            tuple(otherTag, 1L));
+        }
+    }
+
+    private Review review(int rating, Integer difficulty) {
+        var r = review(rating);
+        r.setDifficulty(difficulty);
+        return r;
+    }
+
+    private Review review(int rating) {
+        var r = new Review();
+        r.setProfessor(em.getReference(Professor.class, profId));
+        r.setCourseClass(em.getReference(CourseClass.class, classId));
+        r.setRating(rating);
+        return r;
+    }
+}
@@ -0,0 +1,80 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.Review;
+import com.ross.theovalguide.service.ReviewService.Submission;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReviewSubmitterTest {
+
+    @Mock
+    private ReviewService reviewService;
+
+    private ReviewSubmitter submitter;
+
+    @BeforeEach
+    void setUp() {
+        submitter = new ReviewSubmitter(reviewService);
+        ReflectionTestUtils.setField(submitter, "enabled", true);
+        ReflectionTestUtils.setField(submitter, "windowMs", 1L);
+        ReflectionTestUtils.setField(submitter, "maxBatch", 1);
+        ReflectionTestUtils.setField(submitter, "queueCapacity", 10);
+        ReflectionTestUtils.setField(submitter, "timeoutMs", 200L);
+        submitter.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        submitter.stop();
+    }
+
+    @Test
+    void timedOutSubmissionIsWithdrawnWhileATakenOneIsAwaited() throws Exception {
+        var writing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(reviewService.createAll(anyList())).thenAnswer(inv -> {
+            writing.countDown();
+            release.await();
+            List<Submission> batch = inv.getArgument(0);
+            batch.forEach(s -> s.review().setId(UUID.randomUUID()));
+            return batch.stream().map(Submission::review).toList();
+        });
+
+        var first = CompletableFuture.supplyAsync(() -> submitter.submit(new Review(), List.of()));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // queued behind the stuck batch past its timeout: withdrawn, so a retry cannot duplicate it
+        assertThatThrownBy(() -> submitter.submit(new Review(), List.of()))
+                .isInstanceOfSatisfying(ResponseStatusException.class,
+                        e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+
+        // the first was already being written when its own timeout passed: it gets the outcome, not a 503
+        Thread.sleep(300);
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS)).isNotNull();
+
+        submitter.stop();
+        verify(reviewService, times(1)).createAll(anyList());
+    }
+}
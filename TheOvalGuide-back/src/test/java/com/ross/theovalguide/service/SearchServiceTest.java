@@ -0,0 +1,222 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.DTOS.search.SearchItem;
+import com.ross.theovalguide.DTOS.search.SearchPage;
+import com.ross.theovalguide.service.search.CatalogChangedEvent;
+import com.ross.theovalguide.service.search.CatalogSearchIndex;
+import com.ross.theovalguide.service.search.MemorySearchBackend;
+import com.ross.theovalguide.service.search.Scored;
+import com.ross.theovalguide.service.search.SearchBackend;
+import com.ross.theovalguide.service.search.SearchCursor;
+import com.ross.theovalguide.service.search.SearchDocument;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import com.ross.theovalguide.service.search.SearchQuery;
+import com.ross.theovalguide.service.search.SearchResultCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchServiceTest {
+
+    private SearchService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    void runsSubQueriesConcurrently() {
+        service = serviceWith(new SlowBackend(200, 200, 200), 2_000);
+
+        long started = System.nanoTime();
+        var response = service.search("data", 10);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(response.partial()).isFalse();
+        assertThat(response.items()).extracting("kind").containsExactly("professor", "class");
+        assertThat(elapsedMs).isLessThan(500);
+    }
+
+    @Test
+    void returnsPartialResultsWhenDeadlineExpires() {
+        service = serviceWith(new SlowBackend(0, 5_000, 0), 100);
+
+        long started = System.nanoTime();
+        var response = service.search("data", 10);
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(response.partial()).isTrue();
+        assertThat(response.items()).extracting("kind").containsExactly("class");
+        assertThat(elapsedMs).isLessThan(1_000);
+    }
+
+    @Test
+    void exactClassCodeOutranksWeakProfessorMatchesAndCapIsKept() {
+        var backend = new SearchBackend() {
+            @Override
+            public Optional<SearchDocument> professorBySlug(String slug) {
+                return Optional.empty();
+            }
+
+            @Override
+            public List<SearchDocument> professors(SearchQuery query, int limit) {
+                return List.of(
+                        new SearchDocument(Kind.PROFESSOR, UUID.randomUUID(), "ada-cs", "Ada Cs", "CS", "OSU", null, 50, Instant.now()),
+                        new SearchDocument(Kind.PROFESSOR, UUID.randomUUID(), "bo-lee", "Bo Lee", "CS 2201 Lab", "OSU", null, 0, Instant.now()));
+            }
+
+            @Override
+            public List<SearchDocument> classes(SearchQuery query, int limit) {
+                return List.of(
+                        new SearchDocument(Kind.CLASS, UUID.randomUUID(), "CS 2201", "Data Structures", "CS", "OSU", null, 2, Instant.now()),
+                        new SearchDocument(Kind.CLASS, UUID.randomUUID(), "CS 2201H", "Data Structures Honors", "CS", "OSU", null, 0, Instant.now()));
+            }
+
+            @Override
+            public List<Scored> page(Kind kind, SearchQuery query, SearchCursor after, int limit) {
+                return List.of();
+            }
+        };
+        service = serviceWith(backend, 1_000);
+
+        var response = service.search("cs2201", 2);
+
+        assertThat(response.items()).extracting("id").containsExactly("CS 2201", "CS 2201H");
+    }
+
+    @Test
+    void cursorPagesWalkTheWholeRankingWithoutGapsOrRepeats() {
+        var index = new CatalogSearchIndex();
+        for (int i = 0; i < 7; i++) {
+            index.upsert(new SearchDocument(Kind.PROFESSOR, UUID.randomUUID(), "quinn-" + i, "Quinn " + i, "Math", "OSU", null, i % 3, Instant.now()));
+            index.upsert(new SearchDocument(Kind.CLASS, UUID.randomUUID(), "MATH 10" + i, "Quinn Seminar " + i, "Math", "OSU", null, i % 2, Instant.now()));
+        }
+        service = new SearchService(new MemorySearchBackend(index), index, newCache());
+
+        var seen = new ArrayList<String>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            SearchPage page = service.searchPage("quinn", cursor, 4);
+            page.items().forEach(item -> seen.add(item.id()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(4);
+        assertThat(seen).hasSize(14).doesNotHaveDuplicates();
+        assertThat(seen.subList(0, 4)).containsExactlyElementsOf(
+                service.searchPage("quinn", null, 4).items().stream().map(SearchItem::id).toList());
+    }
+
+    @Test
+    void rejectsForgedCursor() {
+        service = serviceWith(new SlowBackend(0, 0, 0), 1_000);
+
+        assertThatThrownBy(() -> service.searchPage("data", "not-a-cursor", 10))
+                .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void repeatsAreServedFromCacheUntilAShownDocumentChanges() {
+        var calls = new AtomicInteger();
+        var prof = new SearchDocument(Kind.PROFESSOR, UUID.randomUUID(), "data-person", "Data Person", "CS", "OSU", null, 0, Instant.now());
+        var counting = new SearchBackend() {
+            @Override
+            public Optional<SearchDocument> professorBySlug(String slug) {
+                return Optional.empty();
+            }
+
+            @Override
+            public List<SearchDocument> professors(SearchQuery query, int limit) {
+                calls.incrementAndGet();
+                return List.of(prof);
+            }
+
+            @Override
+            public List<SearchDocument> classes(SearchQuery query, int limit) {
+                return List.of();
+            }
+
+            @Override
+            public List<Scored> page(Kind kind, SearchQuery query, SearchCursor after, int limit) {
+                return List.of();
+            }
+        };
+        var cache = newCache();
+        service = new SearchService(counting, new CatalogSearchIndex(), cache);
+        ReflectionTestUtils.setField(service, "deadlineMs", 1_000L);
+
+        service.search("Data", 10);
+        service.search("  data", 10);
+        assertThat(calls).hasValue(1);
+
+        service.search("data", 5);                      // different cap, different entry
+        assertThat(calls).hasValue(2);
+
+        cache.onCatalogChanged(new CatalogChangedEvent(prof, CatalogChangedEvent.Change.UPDATED));
+        service.search("data", 10);
+        assertThat(calls).hasValue(3);
+    }
+
+    private static SearchResultCache newCache() {
+        return new SearchResultCache(100, 60_000, new SimpleMeterRegistry());
+    }
+
+    private static SearchService serviceWith(SearchBackend backend, long deadlineMs) {
+        var service = new SearchService(backend, new CatalogSearchIndex(), newCache());
+        ReflectionTestUtils.setField(service, "deadlineMs", deadlineMs);
+        return service;
+    }
+
+    private record SlowBackend(long slugMs, long profMs, long classMs) implements SearchBackend {
+
+        @Override
+        public Optional<SearchDocument> professorBySlug(String slug) {
+            pause(slugMs);
+            return Optional.empty();
+        }
+
+        @Override
+        public List<SearchDocument> professors(SearchQuery query, int limit) {
+            pause(profMs);
+            return List.of(doc(Kind.PROFESSOR, "data-person"));
+        }
+
+        @Override
+        public List<SearchDocument> classes(SearchQuery query, int limit) {
+            pause(classMs);
+            return List.of(doc(Kind.CLASS, "CS 2201"));
+        }
+
+        @Override
+        public List<Scored> page(Kind kind, SearchQuery query, SearchCursor after, int limit) {
+            return List.of();
+        }
+
+        private static SearchDocument doc(Kind kind, String key) {
+            return new SearchDocument(kind, UUID.randomUUID(), key, "Data", "CS", "OSU", null, 0, Instant.now());
+        }
+
+        private static void pause(long ms) {
+            try {
+                Thread.sleep(ms);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.model.Role;
+import com.ross.theovalguide.repo.SessionTokenRepository;
+import com.ross.theovalguide.repo.SessionTokenRepository.SessionRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionAuthenticatorTest {
+
+    @Mock
+    private SessionTokenRepository tokens;
+
+    private SessionAuthenticator sessions;
+
+    @BeforeEach
+    void setUp() {
+        sessions = new SessionAuthenticator(tokens, 100, 60_000, 60_000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void cachesSessionsAfterTheFirstLookup() {
+        UUID userId = UUID.randomUUID();
+        when(tokens.findSessionByTokenHash(AuthService.hashToken("abc")))
+                .thenReturn(Optional.of(row(userId, Instant.now().plus(Duration.ofDays(1)))));
+
+        assertThat(sessions.authenticate("abc")).get().satisfies(user -> {
+            assertThat(user.id()).isEqualTo(userId);
+            assertThat(user.authorities()).extracting(Object::toString).containsExactly("ROLE_USER");
+        });
+        assertThat(sessions.authenticate("abc")).isPresent();
+
+        verify(tokens, times(1)).findSessionByTokenHash(anyString());
+    }
+
+    @Test
+    void aLookupRacingAnEvictionDoesNotCacheTheOldSession() {
+        UUID userId = UUID.randomUUID();
+        // the user's sessions are deleted and evicted after this lookup read the row, before it caches it
+        when(tokens.findSessionByTokenHash(AuthService.hashToken("abc"))).thenAnswer(inv -> {
+            sessions.evictUser(userId);
+            return Optional.of(row(userId, Instant.now().plus(Duration.ofDays(1))));
+        });
+
+        sessions.authenticate("abc");
+        assertThat(sessions.size()).isZero();
+        sessions.authenticate("abc");
+
+        verify(tokens, times(2)).findSessionByTokenHash(anyString());
+    }
+
+    @Test
+    void remembersUnknownTokens() {
+        when(tokens.findSessionByTokenHash(anyString())).thenReturn(Optional.empty());
+
+        assertThat(sessions.authenticate("forged")).isEmpty();
+        assertThat(sessions.authenticate("forged")).isEmpty();
+
+        verify(tokens, times(1)).findSessionByTokenHash(anyString());
+    }
+
+    @Test
+    void rejectsExpiredSessions() {
+        when(tokens.findSessionByTokenHash(anyString()))
+                .thenReturn(Optional.of(row(UUID.randomUUID(), Instant.now().minusSeconds(1))));
+
+        assertThat(sessions.authenticate("old")).isEmpty();
+        assertThat(sessions.size()).isZero();
+    }
+
+    @Test
+    void evictingAUserDropsOnlyTheirSessions() {
+        UUID alice = UUID.randomUUID();
+        UUID bob = UUID.randomUUID();
+        Instant later = Instant.now().plus(Duration.ofDays(1));
+        when(tokens.findSessionByTokenHash(AuthService.hashToken("a"))).thenReturn(Optional.of(row(alice, later)));
+        when(tokens.findSessionByTokenHash(AuthService.hashToken("b"))).thenReturn(Optional.of(row(bob, later)));
+        sessions.authenticate("a");
+        sessions.authenticate("b");
+
+        sessions.evictUser(alice);
+
+        assertThat(sessions.size()).isEqualTo(1);
+        when(tokens.findSessionByTokenHash(AuthService.hashToken("a"))).thenReturn(Optional.empty());
+        assertThat(sessions.authenticate("a")).isEmpty();
+        assertThat(sessions.authenticate("b")).isPresent();
+    }
+
+    private static SessionRow row(UUID userId, Instant expiresAt) {
+        return new SessionRow() {
+            @Override
+            public UUID getUserId() {
+                return userId;
+            }
+
+            @Override
+            public String getUsername() {
+                return "student";
+            }
+
+            @Override
+            public Role getRole() {
+                return Role.USER;
+            }
+
+            @Override
+            public Instant getExpiresAt() {
+                return expiresAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.ross.theovalguide.service;
+
+import com.ross.theovalguide.repo.TagRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TagResolverTest {
+
+    @Mock
+    private TagRepository tags;
+    @Mock
+    private PlatformTransactionManager transactions;
+
+    private TagResolver resolver;
+
+    @BeforeEach
+    void setUp() {
+        resolver = new TagResolver(tags, transactions);
+        ReflectionTestUtils.setField(resolver, "maxEntries", 100);
+    }
+
+    @Test
+    void labelsAreNormalizedAndResolvedFromMemoryAfterTheFirstLookup() {
+        UUID id = UUID.randomUUID();
+        when(tags.findByLowerLabels(List.of("tough grader"))).thenReturn(List.of(row("tough grader", id)));
+
+        assertThat(resolver.resolve(List.of(" Tough  Grader", "tough grader", " "))).containsExactly(id);
+        assertThat(resolver.resolve(List.of("TOUGH GRADER"))).containsExactly(id);
+
+        verify(tags, times(1)).findByLowerLabels(any());
+        verify(tags, never()).insertIfAbsent(any(), any(), any());
+    }
+
+    @Test
+    void missingLabelsAreInsertedAndReadBack() {
+        UUID known = UUID.randomUUID();
+        UUID created = UUID.randomUUID();
+        when(tags.findByLowerLabels(List.of("clear lectures", "pop quizzes")))
+                .thenReturn(List.of(row("clear lectures", known)));
+        when(tags.findByLowerLabels(List.of("pop quizzes"))).thenReturn(List.of(row("pop quizzes", created)));
+
+        assertThat(resolver.resolve(List.of("Clear Lectures", "Pop Quizzes"))).containsExactly(known, created);
+        verify(tags).insertIfAbsent(any(), eq("pop quizzes"), any());
+        assertThat(resolver.size()).isEqualTo(2);
+    }
+
+    @Test
+    void tooManyTagsOrOverlongLabelsAreRejected() {
+        assertThatThrownBy(() -> resolver.resolve(Collections.nCopies(1, "x".repeat(TagResolver.MAX_LABEL + 1))))
+                .isInstanceOf(ResponseStatusException.class);
+        var many = IntStream.rangeClosed(0, TagResolver.MAX_TAGS).mapToObj(i -> "tag " + i).toList();
+        assertThatThrownBy(() -> resolver.resolve(many)).isInstanceOf(ResponseStatusException.class);
+        verifyNoInteractions(tags);
+    }
+
+    private static TagRepository.LabelRow row(String label, UUID id) {
+        return new TagRepository.LabelRow() {
+            @Override
+            public String getLabel() {
+                return label;
+            }
+
+            @Override
+            public UUID getId() {
+                return id;
+            }
+        };
+    }
+}
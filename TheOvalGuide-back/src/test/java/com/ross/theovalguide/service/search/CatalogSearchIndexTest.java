@@ -0,0 +1,128 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.DTOS.LabelCountDto;
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSearchIndexTest {
+
+    private CatalogSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new CatalogSearchIndex();
+    }
+
+    @Test
+    void matchesSubstringsAcrossFieldsLikeTheLikeQueries() {
+        index.upsert(professor("jane-doe", "Jane Doe", "Computer Science", 12));
+        index.upsert(professor("john-smith", "John Smith", "History", 3));
+        index.upsert(course("CS 2201", "Data Structures", "Computer Science", 40));
+
+        assertThat(index.search(Kind.PROFESSOR, 10, "doe")).extracting(SearchDocument::key)
+                .containsExactly("jane-doe");
+        assertThat(index.search(Kind.PROFESSOR, 10, "COMPUTER")).extracting(SearchDocument::key)
+                .containsExactly("jane-doe");
+        assertThat(index.search(Kind.CLASS, 10, "cs 22", "cs22")).extracting(SearchDocument::key)
+                .containsExactly("CS 2201");
+        assertThat(index.search(Kind.CLASS, 10, "cs2201")).extracting(SearchDocument::key)
+                .containsExactly("CS 2201");
+        assertThat(index.search(Kind.CLASS, 10, "zzz")).isEmpty();
+    }
+
+    @Test
+    void ordersByTotalRatingsAndRespectsLimit() {
+        index.upsert(professor("a", "Alex Quinn", "Math", 1));
+        index.upsert(professor("b", "Blair Quinn", "Math", 9));
+        index.upsert(professor("c", "Casey Quinn", "Math", 5));
+
+        assertThat(index.search(Kind.PROFESSOR, 2, "quinn")).extracting(SearchDocument::key)
+                .containsExactly("b", "c");
+    }
+
+    @Test
+    void upsertReindexesChangedTextAndIgnoresStaleCopies() {
+        var id = UUID.randomUUID();
+        var now = Instant.now();
+        index.upsert(new SearchDocument(Kind.CLASS, id, "MATH 101", "Calculus", "Math", "OSU", null, 0, now));
+        index.upsert(new SearchDocument(Kind.CLASS, id, "MATH 101", "Linear Algebra", "Math", "OSU", null, 0, now.plusSeconds(1)));
+        index.upsert(new SearchDocument(Kind.CLASS, id, "MATH 101", "Calculus", "Math", "OSU", null, 0, now.minusSeconds(5)));
+
+        assertThat(index.search(Kind.CLASS, 10, "calculus")).isEmpty();
+        assertThat(index.search(Kind.CLASS, 10, "algebra")).hasSize(1);
+        assertThat(index.findByKey(Kind.CLASS, "math 101")).isPresent();
+
+        index.remove(id);
+        assertThat(index.search(Kind.CLASS, 10, "algebra")).isEmpty();
+        assertThat(index.findByKey(Kind.CLASS, "MATH 101")).isEmpty();
+    }
+
+    @Test
+    void fuzzyToleratesSmallTyposInNamesSlugsAndCodes() {
+        var whitfield = professor("dana-whitfield", "Dana Whitfield", "Physics", 25);
+        index.upsert(whitfield);
+        index.upsert(professor("dan-whitaker", "Dan Whitaker", "Physics", 3));
+        index.upsert(course("CS 2201", "Data Structures", "Computer Science", 40));
+
+        assertThat(index.fuzzy("dana whitfeild", List.of(), 5, Set.of())).extracting(SearchDocument::key)
+                .containsExactly("dana-whitfield");
+        assertThat(index.fuzzy("whitfeld", List.of(), 5, Set.of())).extracting(SearchDocument::key)
+                .containsExactly("dana-whitfield");
+        assertThat(index.fuzzy("cs 2210", List.of("cs2210"), 5, Set.of())).extracting(SearchDocument::key)
+                .containsExactly("CS 2201");
+        assertThat(index.fuzzy("wxyzfield", List.of(), 5, Set.of())).isEmpty();
+        assertThat(index.fuzzy("whitfeld", List.of(), 5, Set.of(whitfield.id()))).isEmpty();
+
+        index.remove(whitfield.id());
+        assertThat(index.fuzzy("whitfeld", List.of(), 5, Set.of())).isEmpty();
+    }
+
+    @Test
+    void facetedSearchFiltersAndCountsFromBitmaps() {
+        index.upsert(doc(Kind.PROFESSOR, "ann-data", "Ann Data", "Statistics", "Ohio State", 4.5));
+        index.upsert(doc(Kind.PROFESSOR, "bo-data", "Bo Data", "statistics ", "Michigan", 3.0));
+        index.upsert(doc(Kind.PROFESSOR, "cy-data", "Cy Data", "Physics", "Ohio State", null));
+        index.upsert(doc(Kind.CLASS, "STAT 1450", "Data Analysis", "Statistics", "Ohio State", 2.0));
+
+        var all = index.faceted(SearchFilter.NONE, 10, 10, SearchDocument::totalRatings,
+                new String[]{"data"}, new String[]{"data"});
+        assertThat(all.total()).isEqualTo(4);
+        assertThat(all.universities()).containsExactly(
+                new LabelCountDto("Ohio State", 3), new LabelCountDto("Michigan", 1));
+        assertThat(all.departments()).containsExactly(
+                new LabelCountDto("Statistics", 3), new LabelCountDto("Physics", 1));
+
+        var stats = index.faceted(new SearchFilter(null, "STATISTICS", null, null), 10, 10,
+                SearchDocument::totalRatings, new String[]{"data"}, new String[]{"data"});
+        assertThat(stats.docs()).extracting(SearchDocument::key)
+                .containsExactlyInAnyOrder("ann-data", "bo-data", "STAT 1450");
+        // the university facet is counted under the department filter, the department facet is not
+        assertThat(stats.universities()).containsExactly(
+                new LabelCountDto("Ohio State", 2), new LabelCountDto("Michigan", 1));
+        assertThat(stats.departments()).hasSize(2);
+
+        var wellRated = index.faceted(new SearchFilter("ohio state", null, 4.0, null), 10, 10,
+                SearchDocument::totalRatings, new String[]{"data"}, new String[]{"data"});
+        assertThat(wellRated.docs()).extracting(SearchDocument::key).containsExactly("ann-data");
+    }
+
+    private static SearchDocument doc(Kind kind, String key, String title, String dept, String univ, Double rating) {
+        return new SearchDocument(kind, UUID.randomUUID(), key, title, dept, univ, rating, 0, Instant.now());
+    }
+
+    private static SearchDocument professor(String slug, String name, String dept, int ratings) {
+        return new SearchDocument(Kind.PROFESSOR, UUID.randomUUID(), slug, name, dept, "OSU", null, ratings, Instant.now());
+    }
+
+    private static SearchDocument course(String code, String title, String dept, int ratings) {
+        return new SearchDocument(Kind.CLASS, UUID.randomUUID(), code, title, dept, "OSU", null, ratings, Instant.now());
+    }
+}
@@ -0,0 +1,49 @@
+package com.ross.theovalguide.service.search;
+
+import com.ross.theovalguide.service.search.SearchDocument.Kind;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IndexSnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void roundTripsDocumentsAndWatermark() throws Exception {
+        var older = Instant.parse("2025-01-01T10:00:00.123456Z");
+        var newer = Instant.parse("2025-02-01T10:00:00.654321Z");
+        var docs = List.of(
+                new SearchDocument(Kind.PROFESSOR, UUID.randomUUID(), "zoë-ng", "Zoë Ng", "Physics", "OSU", 4.25, 12, older),
+                new SearchDocument(Kind.CLASS, UUID.randomUUID(), "CS 2201", "Data Structures", null, "OSU", null, 0, newer));
+        var store = new IndexSnapshotStore(dir.resolve("nested/index.snapshot"));
+
+        store.write(docs);
+        var snapshot = store.read().orElseThrow();
+
+        assertThat(snapshot.documents()).containsExactlyElementsOf(docs);
+        assertThat(snapshot.watermark()).isEqualTo(newer);
+    }
+
+    @Test
+    void ignoresCorruptOrMissingFiles() throws Exception {
+        var file = dir.resolve("index.snapshot");
+        var store = new IndexSnapshotStore(file);
+        assertThat(store.read()).isEmpty();
+
+        store.write(List.of(new SearchDocument(Kind.CLASS, UUID.randomUUID(), "CS 1", "Intro", "CS", "OSU", null, 0, Instant.now())));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[20] ^= 1;
+        Files.write(file, bytes);
+
+        assertThat(store.read()).isEmpty();
+    }
+}
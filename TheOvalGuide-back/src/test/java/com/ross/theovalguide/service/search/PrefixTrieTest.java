@@ -0,0 +1,40 @@
+package com.ross.theovalguide.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrefixTrieTest {
+
+    @Test
+    void completesPrefixBestScoreFirst() {
+        var trie = new PrefixTrie();
+        trie.add(0, 5, Set.of("cs 2201", "cs2201"));
+        trie.add(1, 40, Set.of("cs 1101", "cs1101"));
+        trie.add(2, 12, Set.of("chem 1601", "chem1601"));
+
+        assertThat(trie.complete("cs", 10)).containsExactly(1, 0);
+        assertThat(trie.complete("c", 2)).containsExactly(1, 2);
+        assertThat(trie.complete("cs22", 10)).containsExactly(0);
+        assertThat(trie.complete("math", 10)).isEmpty();
+    }
+
+    @Test
+    void rescoreAndRemoveUpdateRanking() {
+        var trie = new PrefixTrie();
+        trie.add(0, 1, List.of("jane doe", "doe"));
+        trie.add(1, 9, List.of("jack dorsey", "dorsey"));
+
+        assertThat(trie.complete("do", 10)).containsExactly(1, 0);
+
+        trie.rescore(0, 20, List.of("jane doe", "doe"));
+        assertThat(trie.complete("do", 10)).containsExactly(0, 1);
+
+        trie.remove(0, List.of("jane doe", "doe"));
+        assertThat(trie.complete("do", 10)).containsExactly(1);
+        assertThat(trie.complete("ja", 10)).containsExactly(1);
+    }
+}
@@ -0,0 +1,39 @@
+package com.ross.theovalguide.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedTtlCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedPastCapacity() {
+        var cache = new BoundedTtlCache<String, Integer>(2, Long.MAX_VALUE);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+        cache.put("c", 3);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.evictions()).isEqualTo(1);
+        assertThat(cache.hits()).isEqualTo(3);
+        assertThat(cache.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void expiresEntriesAfterTtl() {
+        var now = new AtomicLong();
+        var cache = new BoundedTtlCache<String, Integer>(10, 100, now::get);
+        cache.put("a", 1);
+
+        now.set(99);
+        assertThat(cache.get("a")).isEqualTo(1);
+        now.set(100);
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ross.theovalguide.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CsvReaderTest {
+
+    @Test
+    void readsQuotedFieldsWithCommasQuotesAndNewlines() throws IOException {
+        var csv = new CsvReader(new StringReader(
+                "slug,comment\r\nada,\"great, \"\"clear\"\" lectures\"\r\nalan,\"two\nlines\"\nbob,\n"));
+
+        assertThat(csv.next()).containsExactly("slug", "comment");
+        assertThat(csv.line()).isEqualTo(2);
+        assertThat(csv.next()).containsExactly("ada", "great, \"clear\" lectures");
+        assertThat(csv.next()).containsExactly("alan", "two\nlines");
+        assertThat(csv.line()).isEqualTo(5);
+        assertThat(csv.next()).containsExactly("bob", "");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void lastRecordNeedsNoTrailingNewline() throws IOException {
+        var csv = new CsvReader(new StringReader("a,b"));
+
+        assertThat(csv.next()).containsExactly("a", "b");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void unterminatedQuoteIsAnError() {
+        var csv = new CsvReader(new StringReader("a,\"open\n"));
+
+        assertThatThrownBy(csv::next).isInstanceOf(IOException.class);
+    }
+}